@@ -0,0 +1,150 @@
+package com.habu;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link Binder#call}, {@link Binder#newInstance} and {@link Binder#getField}
+ * end to end (resolution, argument conversion and invocation) on each
+ * {@link InvocationBackend}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvokeBenchmark {
+  @Param({"REFLECTION", "METHOD_HANDLE", "TIERED"})
+  public InvocationBackend backend;
+
+  private final String text = "benchmark";
+  private final List<Object> noArgs = List.of();
+  private final List<Object> intPair = List.of(3, 4);
+  private final Object[] intPairArray = {3, 4};
+  private final List<Object> mixedPair = List.of(3, 4.5);
+  private final List<Object> bounds = List.of(2, 5);
+  private final List<Object> stringArg = List.of("text");
+  private final List<Object> capacityArg = List.of(16);
+  private final BinderCallSite maxSite = Binder.callSite("max");
+  private final Object[][] batchRows = new Object[1000][];
+  private final Object[] batchResults = new Object[batchRows.length];
+
+  /** Use {@link #backend} for every call. */
+  @Setup
+  public void setBackend() {
+    Binder.setInvocationBackend(backend);
+  }
+
+  /** Fill the rows of {@link #callBatch()}. */
+  @Setup
+  public void fillBatchRows() {
+    for (int i = 0; i < batchRows.length; i++) {
+      batchRows[i] = new Object[] {i, 500};
+    }
+  }
+
+  /** Call {@code Math.max(int, int)}. */
+  @Benchmark
+  public Object callStatic() throws ReflectiveOperationException {
+    return Binder.call(Math.class, "max", intPair);
+  }
+
+  /** Call {@code Math.max(int, int)} with the arguments in an array. */
+  @Benchmark
+  public Object callStaticArray() throws ReflectiveOperationException {
+    return Binder.call(Math.class, "max", intPairArray);
+  }
+
+  /** Call {@code Math.max(int, int)} through the fixed-arity entry point. */
+  @Benchmark
+  public Object callStaticFixedArity() throws ReflectiveOperationException {
+    return Binder.call2(Math.class, "max", 3, 4);
+  }
+
+  /** Call {@code Math.max(long, long)} without boxing. */
+  @Benchmark
+  public long callReturningLong() throws ReflectiveOperationException {
+    return Binder.callReturningLong(Math.class, "max", 3L, 4L);
+  }
+
+  /** Call {@code Math.sqrt(double)} without boxing. */
+  @Benchmark
+  public double callReturningDouble() throws ReflectiveOperationException {
+    return Binder.callReturningDouble(Math.class, "sqrt", 2.0);
+  }
+
+  /** Call {@code String.format(String, Object...)} with two trailing arguments. */
+  @Benchmark
+  public Object callVarargs() throws ReflectiveOperationException {
+    return Binder.call3(String.class, "format", "%s=%s", "x", 4);
+  }
+
+  /** Call {@code Math.max(int, int)} through a call site handle. */
+  @Benchmark
+  public Object callThroughCallSite() throws ReflectiveOperationException {
+    return maxSite.call2(Math.class, 3, 4);
+  }
+
+  /** Call {@code Math.max(int, int)} on 1000 rows as one batch. */
+  @Benchmark
+  public Object[] callBatch() throws ReflectiveOperationException {
+    maxSite.callAll(Math.class, batchRows, batchResults, false);
+    return batchResults;
+  }
+
+  /** Call {@code Math.max(int, int)} on 1000 rows as one parallel batch. */
+  @Benchmark
+  public Object[] callBatchParallel() throws ReflectiveOperationException {
+    maxSite.callAll(Math.class, batchRows, batchResults, true);
+    return batchResults;
+  }
+
+  /** Call {@code Math.max} with an int and a double. */
+  @Benchmark
+  public Object callStaticWidening() throws ReflectiveOperationException {
+    return Binder.call(Math.class, "max", mixedPair);
+  }
+
+  /** Call {@code String.substring(int, int)}. */
+  @Benchmark
+  public Object callVirtual() throws ReflectiveOperationException {
+    return Binder.call(text, "substring", bounds);
+  }
+
+  /** Call {@code String.length()}. */
+  @Benchmark
+  public Object callNoArgs() throws ReflectiveOperationException {
+    return Binder.call(text, "length", noArgs);
+  }
+
+  /** Construct a {@code StringBuilder} from a string. */
+  @Benchmark
+  public Object newInstance() throws ReflectiveOperationException {
+    return Binder.newInstance(StringBuilder.class, stringArg);
+  }
+
+  /** Construct an {@code ArrayList} with an initial capacity. */
+  @Benchmark
+  public Object newInstanceWithInt() throws ReflectiveOperationException {
+    return Binder.newInstance(ArrayList.class, capacityArg);
+  }
+
+  /** Read an enum constant. */
+  @Benchmark
+  public Object getEnumConstant() {
+    return Binder.getField(TimeUnit.class, "SECONDS");
+  }
+}
@@ -0,0 +1,119 @@
+package com.habu;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks overload resolution on heavily overloaded targets: {@link Binder#getMethod}
+ * (which answers repeated argument shapes from its resolution cache),
+ * {@link OverloadResolver#getBestMatch} (an uncached scoring pass over the overloads)
+ * and {@link NumRank#scoreMatch} for BigDecimal arguments.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResolveBenchmark {
+  private final StringBuilder sb = new StringBuilder();
+  private final List<Object> stringArg = List.of("text");
+  private final List<Object> charArg = List.of("c");
+  private final List<Object> intArg = List.of(42);
+  private final List<Object> bigDecArg = List.of(new BigDecimal("1.5"));
+  private final List<Object> intPair = List.of(3, 4);
+  private final List<Object> bigDecPair = List.of(new BigDecimal("3"), new BigDecimal("4.25"));
+  private final Object[] intArgArray = intArg.toArray();
+  private final Object[] bigDecPairArray = bigDecPair.toArray();
+  private final BigDecimal smallBigDec = new BigDecimal("7");
+  private final BigDecimal fractionalBigDec = new BigDecimal("7.125");
+  private Overloads appends;
+  private Overloads maxes;
+
+  /** Collect the overloads the uncached benchmarks score. */
+  @Setup
+  public void collectOverloads() {
+    appends = overloads(StringBuilder.class, "append");
+    maxes = overloads(Math.class, "max");
+  }
+
+  private static Overloads overloads(Class<?> clazz, String name) {
+    return Overloads.of(Arrays.stream(clazz.getMethods())
+        .filter(m -> m.getName().equals(name))
+        .map(Overload::of)
+        .toList());
+  }
+
+  /** Resolve {@code StringBuilder.append(String)}. */
+  @Benchmark
+  public Method appendString() {
+    return Binder.getMethod(sb, "append", stringArg);
+  }
+
+  /** Resolve {@code StringBuilder.append(char)} from a one-character string. */
+  @Benchmark
+  public Method appendChar() {
+    return Binder.getMethod(sb, "append", charArg);
+  }
+
+  /** Resolve {@code StringBuilder.append(int)}. */
+  @Benchmark
+  public Method appendInt() {
+    return Binder.getMethod(sb, "append", intArg);
+  }
+
+  /** Resolve a {@code StringBuilder.append} overload for a BigDecimal. */
+  @Benchmark
+  public Method appendBigDecimal() {
+    return Binder.getMethod(sb, "append", bigDecArg);
+  }
+
+  /** Resolve {@code Math.max(int, int)}. */
+  @Benchmark
+  public Method maxInts() {
+    return Binder.getMethod(Math.class, "max", intPair);
+  }
+
+  /** Resolve a {@code Math.max} overload for two BigDecimals. */
+  @Benchmark
+  public Method maxBigDecimals() {
+    return Binder.getMethod(Math.class, "max", bigDecPair);
+  }
+
+  /** Score the {@code StringBuilder.append} overloads against an int. */
+  @Benchmark
+  public Overload scoreAppendInt() {
+    return OverloadResolver.getBestMatch(appends, intArgArray);
+  }
+
+  /** Score the {@code Math.max} overloads against two BigDecimals. */
+  @Benchmark
+  public Overload scoreMaxBigDecimals() {
+    return OverloadResolver.getBestMatch(maxes, bigDecPairArray);
+  }
+
+  /** Score an integral BigDecimal against an int parameter. */
+  @Benchmark
+  public int scoreMatchIntegralBigDecimal() {
+    return NumRank.scoreMatch(NumRank.rankOf(smallBigDec), NumRank.rank(int.class), true);
+  }
+
+  /** Score a fractional BigDecimal against a double parameter. */
+  @Benchmark
+  public int scoreMatchFractionalBigDecimal() {
+    return NumRank.scoreMatch(NumRank.rankOf(fractionalBigDec), NumRank.rank(double.class), true);
+  }
+}
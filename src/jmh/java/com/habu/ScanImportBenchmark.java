@@ -0,0 +1,53 @@
+package com.habu;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks {@link BinderInstance#scanImport(String)} on an empty binder, i.e. the cost
+ * of a first import (a ClassGraph scan) for each kind of import string.
+ * Each measurement is a single import, as one takes far longer than timer resolution.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScanImportBenchmark {
+  private BinderInstance binder;
+
+  /** Start every import on a binder which hasn't imported anything. */
+  @Setup(Level.Iteration)
+  public void newBinder() {
+    binder = new BinderInstance();
+  }
+
+  /** Import one outer class. */
+  @Benchmark
+  public boolean singleClass() {
+    return binder.scanImport("java.util.ArrayList");
+  }
+
+  /** Import a whole package. */
+  @Benchmark
+  public boolean wildcard() {
+    return binder.scanImport("java.util.*");
+  }
+
+  /** Import a static inner class. */
+  @Benchmark
+  public boolean innerClass() {
+    return binder.scanImport("java.util.AbstractMap.SimpleEntry");
+  }
+}
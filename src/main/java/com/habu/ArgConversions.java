@@ -0,0 +1,185 @@
+package com.habu;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.util.List;
+
+/**
+ * The argument conversions of a {@link CallPlan}: how each argument is converted for
+ * the parameter it is passed to (1-length Strings to chars, numbers to the parameter's
+ * numeric type and Lists to {@code Object[]}, see {@link Binder}), and for a varargs
+ * overload matched with variable arity, which trailing arguments are packed into the
+ * varargs array.
+ * It also records whether the converted arguments are of types
+ * {@link java.lang.reflect.Method#invoke(Object, Object...) Method.invoke} would accept,
+ * since overloads called by signature may be passed anything.
+ */
+final class ArgConversions {
+
+  enum Conversion {
+    NONE, TO_CHAR, TO_NUMBER, TO_ARRAY
+  }
+
+  private final Class<?>[] paramClasses;
+  private final Conversion[] conversions;
+  private final NumRank[] numRanks;
+  private final int packFrom; // the index of the first argument packed as varargs, or -1
+  private boolean converts;
+  private boolean fits;
+
+  private ArgConversions(Overload overload, Class<?>[] argClasses, boolean varArgsCall) {
+    int size = argClasses.length;
+    paramClasses = overload.paramClasses;
+    conversions = new Conversion[size];
+    numRanks = new NumRank[size];
+    packFrom = varArgsCall ? overload.arity - 1 : -1;
+    converts = varArgsCall;
+    fits = true;
+    for (int i = 0; i < size; i++) {
+      Class<?> argClass = argClasses[i];
+      Class<?> paramClass = varArgsCall ? overload.varargParamClass(i) : paramClasses[i];
+      conversions[i] = Conversion.NONE;
+      if (argClass != null) {
+        plan(i, argClass, paramClass,
+            varArgsCall ? overload.varargParamRank(i) : overload.paramRanks[i]);
+      }
+      // converted arguments are always of the parameter's type
+      fits &= conversions[i] != Conversion.NONE || accepts(paramClass, argClass);
+    }
+  }
+
+  // whether Method.invoke() accepts an argument of argClass (null for null arguments)
+  // for a paramClass parameter: unboxing it and widening the primitive if need be
+  private static boolean accepts(Class<?> paramClass, Class<?> argClass) {
+    if (!paramClass.isPrimitive()) {
+      return argClass == null || paramClass.isAssignableFrom(argClass);
+    } else if (argClass == null) {
+      return false;
+    }
+    Class<?> unboxed = MethodType.methodType(argClass).unwrap().returnType();
+    NumRank from = NumRank.rank(unboxed);
+    NumRank to = NumRank.rank(paramClass);
+    return unboxed == paramClass
+        || (from != NumRank.NAN && to != NumRank.CHAR && to.compareTo(from) > 0);
+  }
+
+  /**
+   * Plan the conversions for calling {@code overload} with arguments of
+   * {@code argClasses}.
+   *
+   * @param overload    the best-matched overload
+   * @param argClasses  the classes of the arguments ({@code null} for null arguments)
+   * @param varArgsCall whether {@code overload} is called with variable arity
+   *                    (see {@link OverloadResolver#isVarArgsCall(Overload, Object[])})
+   * @return the planned conversions
+   */
+  static ArgConversions of(Overload overload, Class<?>[] argClasses, boolean varArgsCall) {
+    return new ArgConversions(overload, argClasses, varArgsCall);
+  }
+
+  private void plan(int i, Class<?> argClass, Class<?> paramClass, NumRank paramRank) {
+    if (argClass.equals(String.class) && paramRank == NumRank.CHAR) {
+      conversions[i] = Conversion.TO_CHAR;
+    } else if (Number.class.isAssignableFrom(argClass) && paramRank != NumRank.NAN
+        && NumRank.rank(argClass) != paramRank) {
+      conversions[i] = Conversion.TO_NUMBER;
+      numRanks[i] = paramRank;
+    } else if (List.class.isAssignableFrom(argClass) && paramClass.equals(Object[].class)) {
+      conversions[i] = Conversion.TO_ARRAY;
+    }
+    converts |= conversions[i] != Conversion.NONE;
+  }
+
+  /**
+   * Returns {@code true} if the converted arguments are of the types of the parameters
+   * they are passed to (as checked by {@link java.lang.reflect.Method#invoke(Object,
+   * Object...) Method.invoke}).
+   *
+   * @return whether the arguments fit the overload
+   */
+  boolean fits() {
+    return fits;
+  }
+
+  /**
+   * Returns the index of the first argument packed into the varargs array,
+   * or -1 if the overload is called with its declared arity.
+   *
+   * @return the index of the first packed argument, or -1
+   */
+  int packFrom() {
+    return packFrom;
+  }
+
+  /**
+   * Returns the method handle filter converting the argument for parameter {@code i}
+   * (see {@link CallHandles#filterFor(Conversion, NumRank, Class)}).
+   * Variable arity calls have no filters, since their arguments must be packed first.
+   *
+   * @param i the parameter index
+   * @return the filter, or {@code null} for none
+   */
+  MethodHandle filterFor(int i) {
+    return (packFrom < 0) ? CallHandles.filterFor(conversions[i], numRanks[i], paramClasses[i])
+        : null;
+  }
+
+  /**
+   * Apply these conversions to {@code args}, packing trailing arguments into the
+   * varargs array for variable arity calls.
+   * {@code args} itself is returned when no argument needs converting,
+   * otherwise it is copied and left unchanged.
+   *
+   * @param args the arguments to convert
+   * @return an Object array of all arguments, altered or otherwise
+   */
+  Object[] fit(Object[] args) {
+    if (!converts) {
+      return args;
+    } else if (packFrom >= 0) {
+      return pack(args);
+    }
+    Object[] ret = args.clone();
+    for (int i = 0; i < ret.length; i++) {
+      ret[i] = convert(i, ret[i]);
+    }
+    return ret;
+  }
+
+  // converts the fixed arguments, and the trailing ones straight into a new varargs array
+  private Object[] pack(Object[] args) {
+    Object[] ret = new Object[packFrom + 1];
+    for (int i = 0; i < packFrom; i++) {
+      ret[i] = convert(i, args[i]);
+    }
+    Object varargs = Array.newInstance(
+        paramClasses[packFrom].getComponentType(), args.length - packFrom);
+    if (varargs instanceof Object[]) {
+      Object[] elements = (Object[]) varargs;
+      for (int i = packFrom; i < args.length; i++) {
+        elements[i - packFrom] = convert(i, args[i]);
+      }
+    } else { // a primitive array: Array.set() unboxes (and widens) each element
+      for (int i = packFrom; i < args.length; i++) {
+        Array.set(varargs, i - packFrom, convert(i, args[i]));
+      }
+    }
+    ret[packFrom] = varargs;
+    return ret;
+  }
+
+  @SuppressWarnings("unchecked")
+  private Object convert(int i, Object arg) {
+    switch (conversions[i]) {
+      case TO_CHAR:
+        return ((String) arg).charAt(0);
+      case TO_NUMBER:
+        return numRanks[i].fit((Number) arg);
+      case TO_ARRAY:
+        return ((List<Object>) arg).toArray();
+      default:
+        return arg;
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package com.habu;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The executor background imports and prefetches run on when a binder has none set
+ * (see {@link BinderInstance#setImportExecutor(Executor)}): a virtual thread per task
+ * on JDKs where virtual threads are final, otherwise a cached pool of daemon threads.
+ * Either way, pending tasks never keep the JVM alive.
+ */
+final class BackgroundExecutor {
+  private BackgroundExecutor() {
+  }
+
+  /**
+   * Returns the shared executor, creating it on first use.
+   *
+   * @return the shared executor
+   */
+  static Executor shared() {
+    return Holder.EXECUTOR;
+  }
+
+  private static final class Holder {
+    static final ExecutorService EXECUTOR = create();
+  }
+
+  private static ExecutorService create() {
+    try {
+      // looked up reflectively as this is compiled for a JDK on which it is a preview API
+      return (ExecutorService) Executors.class
+          .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException | UnsupportedOperationException ex) {
+      // no virtual threads (or only as a preview)
+    }
+    AtomicInteger count = new AtomicInteger();
+    return Executors.newCachedThreadPool(r -> {
+      Thread t = new Thread(r, "binder-background-" + count.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+}
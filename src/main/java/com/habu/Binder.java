@@ -1,18 +1,12 @@
 package com.habu;
 
-import io.github.classgraph.ClassGraph;
-import io.github.classgraph.ClassInfo;
-import io.github.classgraph.ClassInfoList;
-import io.github.classgraph.ScanResult;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Executable;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class handles storage and caching of {@code public}
@@ -33,6 +27,10 @@ import java.util.List;
  * if there is not a more suitable function found,
  * {@link java.util.List List} type (or subclass) arguments will be converted to
  * {@code Object[]} arrays (by calling {@link java.util.List#toArray()}).
+ * As in Java, varargs methods / constructors (e.g. {@code String.format}) are called
+ * with variable arity only if no overload matches by its declared arity, in which case
+ * trailing arguments are packed into an array of the varargs element type
+ * (e.g. an {@code int[]} for {@code int...}).
  * This class provides no means of accessing non-{@code public} entities.
  *
  * <p>Extra notes: 1. Enum constants are treated as fields.
@@ -40,61 +38,18 @@ import java.util.List;
  * synonymous
  * with passing a static class (or its code-defined information) in the form of
  * an argument.
- * TODO: Make this an instance class.
+ * 3. The static methods of this class share one default {@link BinderInstance}
+ * (see {@link #getDefault()}). Create separate instances to keep imports, caches and
+ * invocation settings apart.
  */
 public class Binder {
 
-  /* Contains a HashMap of (className, (executableName, Executable)) */
-  private class ExecutableStore { // for caching executables
-    private HashMap<String, HashMap<String, List<Executable>>> table = new HashMap<>();
-
-    /**
-     * Get HashMap of executables stored in {@code className}.
-     *
-     * @param className the class name
-     * @return a HashMap of executables stored in {@code className}
-     */
-    HashMap<String, List<Executable>> in(String className) {
-      return table.get(className);
-    }
-
-    /**
-     * Store {@code className} inside the internal
-     * (className, (executableName, {@link java.lang.reflect.Executable
-     * Executable})) HashMap.
-     *
-     * @param className the class name to store (put)
-     */
-    void registerClass(String className) {
-      if (!table.containsKey(className)) {
-        table.put(className, new HashMap<>());
-      }
-    }
-
-    /**
-     * Returns {@code true} if {@code className} is already registered, or
-     * {@code false} otherwise.
-     *
-     * @param className the class name
-     * @return {@code true} if {@code className} is already registered, or
-     *         {@code false} otherwise
-     */
-    boolean contains(String className) {
-      return table.containsKey(className);
-    }
-
-  }
-
-  // TODO: delete when Binder becomes an instance class in future
   private Binder() {
   }
 
-  private static final Binder imp = new Binder();
-  private static HashMap<String, Object> scanNames = new HashMap<>();
-  protected static ExecutableStore constructorStore = imp.new ExecutableStore();
-  protected static ExecutableStore methodStore = imp.new ExecutableStore();
-  static HashMap<String, String> simpleToFullNames = new HashMap<>();
-  private static boolean recastingBigDecs = true;
+  private static final BinderInstance DEFAULT = new BinderInstance();
+  static final Map<String, String> simpleToFullNames = DEFAULT.simpleToFullNames;
+  private static volatile boolean recastingBigDecs = true;
 
   /**
    * If {@code recast} is {@code false},
@@ -126,21 +81,53 @@ public class Binder {
     return recastingBigDecs;
   }
 
-  // Potentially add specific simpleName Argument for aliasing (import x as y)
-  private static void registerClass(ClassInfo ci) {
-    registerClass(ci.getName(), ci.getSimpleName(), ci.isEnum());
+  /**
+   * Returns the binder which this class's static methods use.
+   *
+   * @return the default binder
+   */
+  public static BinderInstance getDefault() {
+    return DEFAULT;
   }
 
-  private static void registerClass(Class<?> clazz, String className) {
-    registerClass(className, clazz.getSimpleName(), clazz.isEnum());
+  /**
+   * Set the mechanism used to invoke resolved methods and constructors
+   * (the default is {@link InvocationBackend#REFLECTION}).
+   *
+   * @param invocationBackend the invocation backend to use
+   */
+  public static void setInvocationBackend(InvocationBackend invocationBackend) {
+    DEFAULT.setInvocationBackend(invocationBackend);
   }
 
-  private static void registerClass(String className, String simpleClassName, boolean isEnum) {
-    methodStore.registerClass(className);
-    if (!isEnum) {
-      constructorStore.registerClass(className);
-    }
-    simpleToFullNames.put(simpleClassName, className);
+  /**
+   * Returns the mechanism used to invoke resolved methods and constructors.
+   *
+   * @return the current invocation backend
+   */
+  public static InvocationBackend getInvocationBackend() {
+    return DEFAULT.getInvocationBackend();
+  }
+
+  /**
+   * Set how many times a resolved method / constructor overload is called through
+   * reflection before an invoker is generated for it, when using
+   * {@link InvocationBackend#TIERED}. The default is 100.
+   *
+   * @param threshold the number of calls before compiling
+   */
+  public static void setCompileThreshold(int threshold) {
+    DEFAULT.setCompileThreshold(threshold);
+  }
+
+  /**
+   * Returns how many reflective calls are made to an overload
+   * before {@link InvocationBackend#TIERED} compiles it.
+   *
+   * @return the compile threshold
+   */
+  public static int getCompileThreshold() {
+    return DEFAULT.getCompileThreshold();
   }
 
   // If argument o is not a class, this method calls getClass(), otherwise returns
@@ -151,38 +138,6 @@ public class Binder {
     return (ret.equals(Class.class)) ? (Class<?>) o : ret;
   }
 
-  private static String replaceLast(String string, String from, String to) {
-    int lastIndex = string.lastIndexOf(from);
-    if (lastIndex < 0) {
-      return string;
-    }
-    String tail = string.substring(lastIndex).replaceFirst(from, to);
-    return string.substring(0, lastIndex) + tail;
-  }
-
-  // will try and find inner classes to store class info by replacing '.' with '$'
-  private static ScanResult resolveForInnerClasses(ScanResult res, String importString) {
-    if (!res.getPackageInfo().isEmpty()) {
-      return res;
-    }
-    String findClassString = importString;
-    do {
-      if (!findClassString.contains(".")) {
-        break;
-      }
-      res = new ClassGraph()
-          .enableSystemJarsAndModules()
-          .acceptClasses(findClassString)
-          .scan();
-      findClassString = replaceLast(findClassString, ".", "\\$");
-    } while (res.getPackageInfo().isEmpty());
-    return res;
-  }
-
-  private static boolean wasImported(String importString) {
-    return scanNames.containsKey(importString);
-  }
-
   /**
    * Stores public, relevant class info by taking a String that mirrors a Java
    * import statement
@@ -200,39 +155,41 @@ public class Binder {
    * 
    */
   public static boolean scanImport(String importString) {
-    if (!wasImported(importString)) {
-      ScanResult res;
-      if (importString.endsWith("*")) {
-        res = new ClassGraph()
-            .enableSystemJarsAndModules()
-            .acceptPackagesNonRecursive(
-                importString.substring(0, importString.lastIndexOf('.')))
-            .scan();
-      } else {
-        res = new ClassGraph()
-            .enableSystemJarsAndModules()
-            .acceptPackagesNonRecursive(importString)
-            .scan();
-        res = resolveForInnerClasses(res, importString);
-      }
-      ClassInfoList ciList = res.getAllStandardClasses();
-      if (ciList.isEmpty()) {
-        return false;
-      }
-      scanNames.put(importString, null);
-      for (ClassInfo ci : ciList) {
-        // registers static or instant outer classes, but only static inner classes
-        if (ci.isInnerClass()) {
-          if (ci.isStatic()) {
-            registerClass(ci.getName(), ci.getSimpleName(), ci.isEnum());
-          }
-        } else {
-          registerClass(ci);
-        }
-      }
-      res.close();
-    }
-    return true;
+    return DEFAULT.scanImport(importString);
+  }
+
+  /**
+   * Import several import strings at once, resolving all of them with a single,
+   * multi-threaded classpath scan (see {@link #scanImport(String)}).
+   *
+   * @param importStrings the import strings
+   * @return a map of each import string to {@code true} if its scan was successful,
+   *         or {@code false} if it was a failure
+   */
+  public static Map<String, Boolean> scanImports(Collection<String> importStrings) {
+    return DEFAULT.scanImports(importStrings);
+  }
+
+  /**
+   * Scan an import in the background (see {@link BinderInstance#scanImportAsync(String)}).
+   *
+   * @param importString the import string
+   * @return a future completed with {@code true} if the scan was successful,
+   *         or {@code false} if it was a failure
+   */
+  public static CompletableFuture<Boolean> scanImportAsync(String importString) {
+    return DEFAULT.scanImportAsync(importString);
+  }
+
+  /**
+   * Introspect the classes registered by an import in the background
+   * (see {@link BinderInstance#prefetch(String)}).
+   *
+   * @param importString an import string which was scanned successfully
+   * @return a future completed with the number of classes introspected
+   */
+  public static CompletableFuture<Integer> prefetch(String importString) {
+    return DEFAULT.prefetch(importString);
   }
 
   /**
@@ -245,60 +202,7 @@ public class Binder {
    * @return the class name
    */
   public static String getFullClassName(String simpleClassName) {
-    return simpleToFullNames.get(simpleClassName);
-  }
-
-  private static boolean classRegistered(String className) {
-    return methodStore.contains(className);
-  }
-
-  private static boolean callsLoaded(String className) {
-    HashMap<String, List<Executable>> conStore = constructorStore.in(className);
-    return methodStore.in(className).size() > 0
-        || conStore != null && conStore.size() > 0;
-  }
-
-  private static void storeFunctions(Class<?> clazz) {
-    String className = clazz.getName();
-    if (!classRegistered(className)) {
-      registerClass(clazz, className);
-    }
-    if (!callsLoaded(className)) {
-      storeMethods(clazz, className);
-      if (!clazz.isEnum()) {
-        storeConstructors(clazz, className);
-      }
-    }
-  }
-
-  private static void storeMethods(Class<?> clazz, String className) {
-    for (Class<?> upperClazz = clazz; upperClazz != null; upperClazz = upperClazz.getSuperclass()) {
-      for (Method m : upperClazz.getMethods()) {
-        HashMap<String, List<Executable>> smlTable = methodStore.in(className);
-        String miName = m.getName();
-        if (smlTable.containsKey(miName)) {
-          smlTable.get(miName).add(m);
-        } else {
-          List<Executable> smList = new ArrayList<Executable>();
-          smList.add(m);
-          smlTable.put(miName, smList);
-        }
-      }
-    }
-  }
-
-  private static void storeConstructors(Class<?> clazz, String className) {
-    for (Constructor<?> c : clazz.getConstructors()) {
-      HashMap<String, List<Executable>> clTable = constructorStore.in(className);
-      String conName = c.getName();
-      if (clTable.containsKey(className)) {
-        clTable.get(className).add(c);
-      } else {
-        List<Executable> coList = new ArrayList<Executable>();
-        coList.add(c);
-        clTable.put(conName, coList);
-      }
-    }
+    return DEFAULT.getFullClassName(simpleClassName);
   }
 
   /**
@@ -314,52 +218,20 @@ public class Binder {
    */
   public static Method getMethod(
       Object o, String methodName, List<Object> passedArgs) {
-    Class<?> clazz = tryGetClass(o);
-    storeFunctions(clazz);
-    List<Executable> methodOptions = methodStore.in(clazz.getName()).get(methodName);
-    if (methodOptions == null) {
-      return null;
-    } else {
-      return (Method) getBestMatch(methodOptions, passedArgs);
-    }
-  }
-
-  // calls scoreMatch to get the best matching executable based on passedArgs
-  // Returns null if no good match found
-  private static Executable getBestMatch(
-      List<Executable> options, List<Object> passedArgs) {
-    Executable bestMatch = null;
-    int highScore = 0;
-    for (Executable e : options) {
-      int newScore = scoreMatch(e, passedArgs);
-      if (newScore > highScore) {
-        highScore = newScore;
-        bestMatch = e;
-      }
-    }
-    return bestMatch;
-  }
-
-  private static boolean classIsStatic(Class<?> clazz) {
-    return Modifier.isStatic(clazz.getModifiers());
+    return DEFAULT.getMethod(o, methodName, passedArgs);
   }
 
-  private static Object newInnerInstance(
-      Object outerInstance, Class<?> inner, List<Object> passedArgs)
-      throws InstantiationException, IllegalAccessException,
-      IllegalArgumentException, InvocationTargetException {
-    if (!classIsStatic(inner)) {
-      if (outerInstance.getClass().equals(Class.class)) {
-        throw new InvocationTargetException(// -- calling a non-static inner from a static outer --
-            null, "Error: attempting to construct an inner class from a static outer class");
-      }
-      List<Object> augArgs = new ArrayList<>();
-      augArgs.add(outerInstance);
-      augArgs.addAll(passedArgs);
-      return newInstance(inner, augArgs);
-    } else {
-      return newInstance(inner, passedArgs);
-    }
+  /**
+   * Same as {@link #getMethod(Object, String, List)}, taking the arguments as an array.
+   *
+   * @param o          the object instance or class which contains the desired
+   *                   method
+   * @param methodName the name of the method
+   * @param passedArgs the arguments to try against method parameters
+   * @return the best matching method, or {@code null} if there wasn't one
+   */
+  public static Method getMethod(Object o, String methodName, Object[] passedArgs) {
+    return DEFAULT.getMethod(o, methodName, passedArgs);
   }
 
   /**
@@ -415,18 +287,217 @@ public class Binder {
       Object caller, String functionName, List<Object> passedArgs)
       throws InstantiationException, IllegalAccessException,
       IllegalArgumentException, InvocationTargetException {
-    Class<?> clazz = tryGetClass(caller);
-    Class<?> inner = getInnerClass(clazz, functionName);
-    if (clazz.getSimpleName().equals(functionName)) {
-      return newInstance(clazz, passedArgs);
-    } else {
-      inner = getInnerClass(clazz, functionName);
-      if (inner != null) {
-        return newInnerInstance(caller, inner, passedArgs);
-      } else {
-        return invoke(caller, getMethod(caller, functionName, passedArgs), passedArgs);
-      }
-    }
+    return DEFAULT.call(caller, functionName, passedArgs);
+  }
+
+  /**
+   * Same as {@link #call(Object, String, List)}, taking the arguments as an array
+   * (which is not modified). Unlike the {@code List} version this doesn't copy the
+   * arguments unless some need converting.
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function (a simple class name for
+   *                     constructors)
+   * @param passedArgs   the arguments to resolve and pass to the method
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, String, List)}
+   * @throws IllegalAccessException    see {@link #call(Object, String, List)}
+   * @throws IllegalArgumentException  see {@link #call(Object, String, List)}
+   * @throws InvocationTargetException see {@link #call(Object, String, List)}
+   */
+  public static Object call(Object caller, String functionName, Object[] passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return DEFAULT.call(caller, functionName, passedArgs);
+  }
+
+  /**
+   * Same as {@link #call(Object, String, List)} for a function taking no arguments.
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, String, List)}
+   * @throws IllegalAccessException    see {@link #call(Object, String, List)}
+   * @throws IllegalArgumentException  see {@link #call(Object, String, List)}
+   * @throws InvocationTargetException see {@link #call(Object, String, List)}
+   */
+  public static Object call0(Object caller, String functionName)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return DEFAULT.call0(caller, functionName);
+  }
+
+  /**
+   * Same as {@link #call(Object, String, List)} for a function taking one argument.
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @param a            the argument
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, String, List)}
+   * @throws IllegalAccessException    see {@link #call(Object, String, List)}
+   * @throws IllegalArgumentException  see {@link #call(Object, String, List)}
+   * @throws InvocationTargetException see {@link #call(Object, String, List)}
+   */
+  public static Object call1(Object caller, String functionName, Object a)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return DEFAULT.call1(caller, functionName, a);
+  }
+
+  /**
+   * Same as {@link #call(Object, String, List)} for a function taking two arguments.
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @param a            the first argument
+   * @param b            the second argument
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, String, List)}
+   * @throws IllegalAccessException    see {@link #call(Object, String, List)}
+   * @throws IllegalArgumentException  see {@link #call(Object, String, List)}
+   * @throws InvocationTargetException see {@link #call(Object, String, List)}
+   */
+  public static Object call2(Object caller, String functionName, Object a, Object b)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return DEFAULT.call2(caller, functionName, a, b);
+  }
+
+  /**
+   * Same as {@link #call(Object, String, List)} for a function taking three arguments.
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @param a            the first argument
+   * @param b            the second argument
+   * @param c            the third argument
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, String, List)}
+   * @throws IllegalAccessException    see {@link #call(Object, String, List)}
+   * @throws IllegalArgumentException  see {@link #call(Object, String, List)}
+   * @throws InvocationTargetException see {@link #call(Object, String, List)}
+   */
+  public static Object call3(
+      Object caller, String functionName, Object a, Object b, Object c)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return DEFAULT.call3(caller, functionName, a, b, c);
+  }
+
+  /**
+   * Call a method with {@code long} arguments and return its numeric result as a
+   * {@code long}, without boxing (see
+   * {@link BinderInstance#callReturningLong(Object, String, long, long)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public static long callReturningLong(Object caller, String methodName)
+      throws IllegalAccessException, InvocationTargetException {
+    return DEFAULT.callReturningLong(caller, methodName);
+  }
+
+  /**
+   * Call a method with {@code long} arguments and return its numeric result as a
+   * {@code long}, without boxing (see
+   * {@link BinderInstance#callReturningLong(Object, String, long, long)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public static long callReturningLong(Object caller, String methodName, long a)
+      throws IllegalAccessException, InvocationTargetException {
+    return DEFAULT.callReturningLong(caller, methodName, a);
+  }
+
+  /**
+   * Call a method with {@code long} arguments and return its numeric result as a
+   * {@code long}, without boxing (see
+   * {@link BinderInstance#callReturningLong(Object, String, long, long)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the first argument
+   * @param b          the second argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public static long callReturningLong(Object caller, String methodName, long a, long b)
+      throws IllegalAccessException, InvocationTargetException {
+    return DEFAULT.callReturningLong(caller, methodName, a, b);
+  }
+
+  /**
+   * Call a method with {@code double} arguments and return its numeric result as a
+   * {@code double}, without boxing (see
+   * {@link BinderInstance#callReturningDouble(Object, String, double, double)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public static double callReturningDouble(Object caller, String methodName)
+      throws IllegalAccessException, InvocationTargetException {
+    return DEFAULT.callReturningDouble(caller, methodName);
+  }
+
+  /**
+   * Call a method with {@code double} arguments and return its numeric result as a
+   * {@code double}, without boxing (see
+   * {@link BinderInstance#callReturningDouble(Object, String, double, double)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public static double callReturningDouble(Object caller, String methodName, double a)
+      throws IllegalAccessException, InvocationTargetException {
+    return DEFAULT.callReturningDouble(caller, methodName, a);
+  }
+
+  /**
+   * Call a method with {@code double} arguments and return its numeric result as a
+   * {@code double}, without boxing (see
+   * {@link BinderInstance#callReturningDouble(Object, String, double, double)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the first argument
+   * @param b          the second argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public static double callReturningDouble(Object caller, String methodName, double a, double b)
+      throws IllegalAccessException, InvocationTargetException {
+    return DEFAULT.callReturningDouble(caller, methodName, a, b);
+  }
+
+  /**
+   * Returns a new call site handle for calling {@code functionName} through the default
+   * binder (see {@link BinderInstance#callSite(String)}).
+   *
+   * @param functionName the name of the function (a simple class name for
+   *                     constructors)
+   * @return the call site
+   */
+  public static BinderCallSite callSite(String functionName) {
+    return DEFAULT.callSite(functionName);
   }
 
   /**
@@ -444,7 +515,10 @@ public class Binder {
   }
 
   /**
-   * Call a method and return the result.
+   * Call a method and return the result. Arguments are converted as for
+   * {@link #call(Object, String, List)}; trailing arguments to a varargs method
+   * (such as one returned by {@link #getMethod(Object, String, List)} for a variable arity
+   * match) are packed into its varargs array unless they are passed as the array itself.
    *
    * @param caller     the object which calls {@code method}
    * @param method     the method to call
@@ -483,11 +557,7 @@ public class Binder {
   public static Object invoke(
       Object caller, Method method, List<Object> passedArgs)
       throws IllegalAccessException, InvocationTargetException {
-    if (method != null) {
-      return method.invoke(caller, fitArgsToFunction(passedArgs, method));
-    } else {
-      throw new NullPointerException("Method is null / unmatched method based on passedArgs");
-    }
+    return DEFAULT.invoke(caller, method, passedArgs);
   }
 
   /**
@@ -503,10 +573,19 @@ public class Binder {
    * @return the best matching constructor, or {@code null} if there wasn't one
    */
   public static Constructor<?> getConstructor(Class<?> clazz, List<Object> passedArgs) {
-    String className = clazz.getName();
-    storeFunctions(clazz);
-    return (Constructor<?>) getBestMatch(
-        constructorStore.in(className).get(className), passedArgs);
+    return DEFAULT.getConstructor(clazz, passedArgs);
+  }
+
+  /**
+   * Same as {@link #getConstructor(Class, List)}, taking the arguments as an array.
+   *
+   * @param clazz      the class which contains the desired constructor
+   * @param passedArgs the arguments to attempt matching against constructor
+   *                   parameters
+   * @return the best matching constructor, or {@code null} if there wasn't one
+   */
+  public static Constructor<?> getConstructor(Class<?> clazz, Object[] passedArgs) {
+    return DEFAULT.getConstructor(clazz, passedArgs);
   }
 
   /**
@@ -546,21 +625,25 @@ public class Binder {
   public static Object newInstance(Class<?> clazz, List<Object> passedArgs)
       throws InstantiationException, IllegalAccessException,
       IllegalArgumentException, InvocationTargetException {
-    Constructor<?> bestMatch = getConstructor(clazz, passedArgs);
-    if (bestMatch != null) {
-      return bestMatch.newInstance(fitArgsToFunction(passedArgs, bestMatch));
-    }
-    throw new IllegalArgumentException(
-        "Cannot match a constructor for " + clazz.getName() + " to passedArgs");
+    return DEFAULT.newInstance(clazz, passedArgs);
   }
 
-  private static Class<?> getInnerClass(Object outer, String innerClassName) {
-    for (Class<?> innerClazz : tryGetClass(outer).getDeclaredClasses()) {
-      if (innerClazz.getSimpleName().equals(innerClassName)) {
-        return innerClazz;
-      }
-    }
-    return null; // Inner class not found
+  /**
+   * Same as {@link #newInstance(Class, List)}, taking the arguments as an array
+   * (which is not modified).
+   *
+   * @param clazz      class to instantiate
+   * @param passedArgs arguments for the constructor
+   * @return a new instance of {@code clazz}
+   * @throws InstantiationException    see {@link #newInstance(Class, List)}
+   * @throws IllegalAccessException    see {@link #newInstance(Class, List)}
+   * @throws IllegalArgumentException  see {@link #newInstance(Class, List)}
+   * @throws InvocationTargetException see {@link #newInstance(Class, List)}
+   */
+  public static Object newInstance(Class<?> clazz, Object[] passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return DEFAULT.newInstance(clazz, passedArgs);
   }
 
   /**
@@ -574,18 +657,23 @@ public class Binder {
    *         isn't one
    */
   public static Object getField(Object o, String fieldName) {
-    try {
-      Class<?> clazz = tryGetClass(o);
-      Field field = clazz.getField(fieldName);
-      if (field.isEnumConstant()) {
-        return clazz.getMethod("valueOf", String.class).invoke(null, fieldName);
-      } else {
-        return field.get(o);
-      }
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      return null; // Field not found
-    }
+    return DEFAULT.getField(o, fieldName);
+  }
+
+  /**
+   * Set the value of a public, non-final field of {@code o}
+   * (see {@link BinderInstance#setField(Object, String, Object)}).
+   *
+   * @param o         the object (or class) whose field to set
+   * @param fieldName the name of the field
+   * @param value     the value to set
+   * @throws NoSuchFieldException     if there is no public field named {@code fieldName}
+   * @throws IllegalAccessException   if the field is final or inaccessible
+   * @throws IllegalArgumentException if {@code value} can't be assigned to the field
+   */
+  public static void setField(Object o, String fieldName, Object value)
+      throws NoSuchFieldException, IllegalAccessException {
+    DEFAULT.setField(o, fieldName, value);
   }
 
   /**
@@ -598,151 +686,7 @@ public class Binder {
    * @return the field / inner class
    */
   public static Object getFieldOrInnerClass(Object o, String fieldName) {
-    try {
-      Class<?> innerClazz = getInnerClass(o, fieldName);
-      if (innerClazz != null) {
-        return innerClazz;
-      } else {
-        return getField(o, fieldName);
-      }
-    } catch (Exception ex) {
-      ex.printStackTrace();
-      return null; // Field not found
-    }
-  }
-
-  // 0 == err otherwase score is the return value - 1
-  private static int scoreForObjectsAndNulls(Object arg, Class<?> paramClass) {
-    if (arg == null) {
-      if (paramClass.isPrimitive()) {
-        return 0;
-      } else if (paramClass.equals(Object.class)) {
-        return 3;
-      } else {
-        return 2;
-      }
-    }
-    if (paramClass.equals(Object.class)) {
-      return 2;
-    } else {
-      return 1;
-    }
-  }
-
-  // score == abs (1) == return this score , 0 = continue;
-  private static int argBasicCheck(Executable c, List<Object> passedArgs) {
-    if (c.getParameterCount() != passedArgs.size()) {
-      return -1;
-    } else if (c.getParameterCount() == 0 && passedArgs.size() == 0) {
-      return 1;
-    } else {
-      return 0;
-    }
-  }
-
-  // assigns a score on how close arguments for a method matches
-  // each particular overload
-  private static int scoreMatch(Executable c, List<Object> passedArgs) {
-    int ret = argBasicCheck(c, passedArgs);
-    if (Math.abs(ret) == 1) {
-      return ret; // 1 pt: no args and no params | -1 pt: bad match (arg and param count mismatch)
-    }
-    for (int i = 0; i < passedArgs.size(); i++) {
-      Object currentArg = passedArgs.get(i);
-      Class<?> paramClass = c.getParameterTypes()[i];
-      int nullAndObjectScore = scoreForObjectsAndNulls(currentArg, paramClass);
-      if (nullAndObjectScore == 0) {
-        return -1; // bad match
-      } else {
-        if (nullAndObjectScore > 1) {
-          ret += nullAndObjectScore - 1; // 1 pt: null arg, | 2 pts: null arg to Object param
-          continue;
-        }
-      }
-      Class<?> argClass = currentArg.getClass();
-      if (argClass.equals(paramClass)) {
-        ret += 6; // 6 pts: same class
-      } else if (paramClass.isAssignableFrom(argClass)) {
-        ret += 5; // subclass
-      } else if (paramClass.equals(Object[].class) && List.class.isAssignableFrom(argClass)) {
-        ret += 4; // converting list to arr
-      } else {
-        if (argClass.equals(String.class) 
-            && (paramClass.equals(Character.class) || paramClass.equals(char.class))) {
-          String s = (String) currentArg;
-          // a 1-length String will be treated as a char if necessary (NOT a character)
-          if (s.length() == 1) {
-            currentArg = s.charAt(0);
-            argClass = currentArg.getClass();
-          }
-        }
-        int numRankScore = NumRank.scoreMatch(currentArg, argClass, paramClass);
-        if (numRankScore == 0) {
-          return -1; // bad match
-        } else {
-          ret += numRankScore; // see NumRank.scoreMatch()
-        }
-      }
-    }
-    return ret;
-  }
-
-  /**
-   * Convert 1-length strings to character types if necessary.
-   * Convert {@link java.lang.Number Number} type args to the appropriate parameter numeric type if
-   * necessary.
-   * Convert list arguments to {@code Object[]} arguments if necessary.
-   *
-   * @param args arguments to be passed to the method
-   * @param e    best-matched overload for target method / constructor
-   * @return an Object array of all arguments, altered or otherwise
-   */
-  @SuppressWarnings("unchecked")
-  protected static Object[] fitArgsToFunction(List<Object> args, Executable e) {
-    Object[] ret = new Object[args.size()];
-    Class<?>[] paramClasses = e.getParameterTypes();
-    for (int i = 0; i < ret.length; i++) {
-      Object currentArg = args.get(i);
-      if (currentArg == null) {
-        ret[i] = null;
-      } else {
-        Class<?> argClass = args.get(i).getClass();
-        Class<?> paramClass = paramClasses[i];
-        if (argClass.equals(String.class) 
-            && paramClass.equals(Character.class) || paramClass.equals(char.class)) {
-          ret[i] = ((String) currentArg).charAt(0);
-        } else if (Number.class.isAssignableFrom(args.get(i).getClass())) {
-          ret[i] = fitNumberToFunction((Number) args.get(i), paramClass);
-        } else if (List.class.isAssignableFrom(argClass) && paramClass.equals(Object[].class)) {
-          ret[i] = ((List<Object>) currentArg).toArray();
-        } else {
-          ret[i] = currentArg;
-        }
-      }
-    }
-    return ret;
-  }
-
-  // TypeCast numArg baased on the numerical ranking of currentParamClass
-  private static Object fitNumberToFunction(Number numArg, Class<?> currentParamClass) {
-    switch (NumRank.rank(currentParamClass)) {
-      case BYTE:
-        return numArg.byteValue();
-      case SHORT:
-        return numArg.shortValue();
-      case CHAR:
-        return (char) numArg.intValue();
-      case INT:
-        return numArg.intValue();
-      case LONG:
-        return numArg.longValue();
-      case FLOAT:
-        return numArg.floatValue();
-      case DOUBLE:
-        return numArg.doubleValue();
-      default:
-        return numArg;
-    }
+    return DEFAULT.getFieldOrInnerClass(o, fieldName);
   }
 
 }
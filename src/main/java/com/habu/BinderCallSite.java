@@ -0,0 +1,423 @@
+package com.habu;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A handle for one call site of an interpreter, i.e. one syntactic
+ * {@code caller.functionName(args)} expression, obtained once with
+ * {@link BinderInstance#callSite(String)} and called through for every evaluation.
+ *
+ * <p>Calls behave as {@link BinderInstance#call(Object, String, Object[])}, but each site
+ * keeps an inline cache of what its calls were bound to (a resolved method, a constructor,
+ * or an inner class constructor) by receiver class and argument shape, so repeat calls skip
+ * the receiver class's name lookups and the binder's shared resolution cache.
+ * The cache is monomorphic or polymorphic up to {@link #POLYMORPHIC_LIMIT} entries;
+ * a site which sees more than that becomes megamorphic and goes through
+ * {@link BinderInstance#call(Object, String, Object[])} from then on.
+ *
+ * <p>The {@code callAll} / {@code callEach} methods call a site's function once per
+ * argument tuple of a batch, so that resolution and conversion planning happen once per
+ * distinct (receiver class, argument shape) of the batch rather than once per row,
+ * optionally on all cores (through the common fork-join pool). A batch stops at the first
+ * call which throws; rows of a parallel batch may then have been called in any order.
+ *
+ * <p>Call sites are thread-safe. They hold the classes they were bound to strongly,
+ * and keep their bindings when the binder's caches are cleared.
+ */
+public final class BinderCallSite {
+  /**
+   * The number of (receiver class, argument shape) bindings a call site caches
+   * before it becomes megamorphic.
+   */
+  public static final int POLYMORPHIC_LIMIT = 4;
+
+  private static final Object[] NO_ARGS = new Object[0];
+  private static final Binding[] UNBOUND = new Binding[0];
+  private static final AtomicReferenceFieldUpdater<BinderCallSite, Binding[]> BINDINGS =
+      AtomicReferenceFieldUpdater.newUpdater(BinderCallSite.class, Binding[].class, "bindings");
+
+  private final BinderInstance binder;
+  private final String functionName;
+  // copy on write, null once megamorphic (and never non-null again)
+  private volatile Binding[] bindings = UNBOUND;
+
+  BinderCallSite(BinderInstance binder, String functionName) {
+    this.binder = binder;
+    this.functionName = functionName;
+  }
+
+  // what calls from one receiver class with one argument shape are bound to
+  private static final class Binding {
+    final Class<?> receiverClass;
+    final CallPlan plan; // null for inner class constructors
+    final boolean constructor;
+    final Class<?> inner; // the inner class to construct, if any
+
+    Binding(Class<?> receiverClass, CallPlan plan, boolean constructor, Class<?> inner) {
+      this.receiverClass = receiverClass;
+      this.plan = plan;
+      this.constructor = constructor;
+      this.inner = inner;
+    }
+
+    boolean sameAs(Binding b) {
+      return receiverClass == b.receiverClass && plan == b.plan && inner == b.inner;
+    }
+  }
+
+  /**
+   * Returns the name of the function this site calls.
+   *
+   * @return the function name
+   */
+  public String getFunctionName() {
+    return functionName;
+  }
+
+  /**
+   * Returns {@code true} if this site has seen more than {@link #POLYMORPHIC_LIMIT}
+   * (receiver class, argument shape) combinations and no longer caches bindings.
+   *
+   * @return whether this site is megamorphic
+   */
+  public boolean isMegamorphic() {
+    return bindings == null;
+  }
+
+  /**
+   * Returns the number of bindings this site caches.
+   *
+   * @return the inline cache size (0 once megamorphic)
+   */
+  int bindingCount() {
+    Binding[] current = bindings;
+    return (current == null) ? 0 : current.length;
+  }
+
+  /**
+   * Call this site's function (see {@link BinderInstance#call(Object, String, Object[])}).
+   * {@code passedArgs} is not modified.
+   *
+   * @param caller     the object instance or class
+   * @param passedArgs the arguments to resolve and pass to the function
+   * @return the result of the function call
+   * @throws InstantiationException    if a matched constructor belongs to an abstract class
+   * @throws IllegalAccessException    if the matched executable is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches {@code passedArgs}
+   * @throws InvocationTargetException if the underlying method / constructor throws an
+   *                                   exception, or a non-static inner class is
+   *                                   constructed from a static {@code caller}
+   */
+  public Object call(Object caller, Object[] passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    Binding[] current = bindings;
+    if (current == null) {
+      return binder.call(caller, functionName, passedArgs);
+    }
+    Class<?> clazz = Binder.tryGetClass(caller);
+    int[] qualifiers = null; // the argument shape, computed once for all bindings
+    for (Binding b : current) {
+      if (b.receiverClass != clazz) {
+        continue;
+      } else if (b.inner != null) {
+        return invoke(b, caller, passedArgs); // resolved per call, whatever the shape
+      }
+      if (qualifiers == null) {
+        qualifiers = CallPlan.qualifiersOf(passedArgs);
+      }
+      if (b.plan.matches(passedArgs, qualifiers)) {
+        return invoke(b, caller, passedArgs);
+      }
+    }
+    Binding b = bind(clazz, passedArgs);
+    cache(b);
+    return invoke(b, caller, passedArgs);
+  }
+
+  /**
+   * Call this site's function with no arguments (see {@link #call(Object, Object[])}).
+   *
+   * @param caller the object instance or class
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public Object call0(Object caller)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, NO_ARGS);
+  }
+
+  /**
+   * Call this site's function with one argument (see {@link #call(Object, Object[])}).
+   *
+   * @param caller the object instance or class
+   * @param a      the argument
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public Object call1(Object caller, Object a)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, new Object[] {a});
+  }
+
+  /**
+   * Call this site's function with two arguments (see {@link #call(Object, Object[])}).
+   *
+   * @param caller the object instance or class
+   * @param a      the first argument
+   * @param b      the second argument
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public Object call2(Object caller, Object a, Object b)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, new Object[] {a, b});
+  }
+
+  /**
+   * Call this site's function with three arguments (see {@link #call(Object, Object[])}).
+   *
+   * @param caller the object instance or class
+   * @param a      the first argument
+   * @param b      the second argument
+   * @param c      the third argument
+   * @return the result of the function call
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public Object call3(Object caller, Object a, Object b, Object c)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, new Object[] {a, b, c});
+  }
+
+  /**
+   * Call this site's function on {@code caller} once per argument tuple, storing the
+   * result of {@code argTuples[i]} into {@code results[i]}. Tuples are not modified.
+   *
+   * @param caller    the object instance or class
+   * @param argTuples the arguments of each call
+   * @param results   the array to store the results into
+   * @param parallel  whether to make the calls in parallel
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}, or if
+   *                                   {@code results} is shorter than {@code argTuples}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public void callAll(Object caller, Object[][] argTuples, Object[] results, boolean parallel)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    checkResultsLength(argTuples.length, results);
+    forEachRow(argTuples.length, parallel, i -> results[i] = call(caller, argTuples[i]));
+  }
+
+  /**
+   * Call this site's function on {@code caller} once per argument tuple, collecting the
+   * results (in encounter order, for ordered collectors).
+   *
+   * @param caller    the object instance or class
+   * @param argTuples the arguments of each call
+   * @param collector the collector of the results (which may be {@code null})
+   * @param <R>       the collected result type
+   * @return the collected results
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public <R> R callAll(Object caller, Iterable<Object[]> argTuples,
+      Collector<Object, ?, R> collector) throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return callAll(caller, StreamSupport.stream(argTuples.spliterator(), false), collector);
+  }
+
+  /**
+   * Call this site's function on {@code caller} once per argument tuple of a stream,
+   * collecting the results. The calls are made in parallel if {@code argTuples}
+   * is a parallel stream.
+   *
+   * @param caller    the object instance or class
+   * @param argTuples the arguments of each call
+   * @param collector the collector of the results (which may be {@code null})
+   * @param <R>       the collected result type
+   * @return the collected results
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public <R> R callAll(Object caller, Stream<Object[]> argTuples,
+      Collector<Object, ?, R> collector) throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    try {
+      return argTuples.map(args -> callUnchecked(caller, args)).collect(collector);
+    } catch (BatchFailure f) {
+      throw rethrow(f);
+    }
+  }
+
+  /**
+   * Call this site's function once per receiver, storing the result of calling it on
+   * {@code callers[i]} with {@code argTuples[i]} into {@code results[i]}.
+   * Tuples are not modified.
+   *
+   * @param callers   the object instance or class of each call
+   * @param argTuples the arguments of each call, or {@code null} to pass none
+   * @param results   the array to store the results into
+   * @param parallel  whether to make the calls in parallel
+   * @throws InstantiationException    see {@link #call(Object, Object[])}
+   * @throws IllegalAccessException    see {@link #call(Object, Object[])}
+   * @throws IllegalArgumentException  see {@link #call(Object, Object[])}, or if
+   *                                   {@code argTuples} or {@code results} is shorter than
+   *                                   {@code callers}
+   * @throws InvocationTargetException see {@link #call(Object, Object[])}
+   */
+  public void callEach(Object[] callers, Object[][] argTuples, Object[] results,
+      boolean parallel) throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    checkResultsLength(callers.length, results);
+    if (argTuples == null) {
+      forEachRow(callers.length, parallel, i -> results[i] = call(callers[i], NO_ARGS));
+    } else if (argTuples.length < callers.length) {
+      throw new IllegalArgumentException(
+          "Error: " + argTuples.length + " argument tuples for " + callers.length + " callers");
+    } else {
+      forEachRow(callers.length, parallel, i -> results[i] = call(callers[i], argTuples[i]));
+    }
+  }
+
+  private static void checkResultsLength(int rows, Object[] results) {
+    if (results.length < rows) {
+      throw new IllegalArgumentException(
+          "Error: " + results.length + " results for " + rows + " calls");
+    }
+  }
+
+  // one row of a batch
+  private interface Row {
+    void call(int i) throws ReflectiveOperationException;
+  }
+
+  private static void forEachRow(int rows, boolean parallel, Row row)
+      throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    if (!parallel) {
+      try {
+        for (int i = 0; i < rows; i++) {
+          row.call(i);
+        }
+      } catch (ReflectiveOperationException ex) {
+        throw rethrow(ex);
+      }
+      return;
+    }
+    try {
+      IntStream.range(0, rows).parallel().forEach(i -> {
+        try {
+          row.call(i);
+        } catch (ReflectiveOperationException ex) {
+          throw new BatchFailure(ex);
+        }
+      });
+    } catch (BatchFailure f) {
+      throw rethrow(f);
+    }
+  }
+
+  private Object callUnchecked(Object caller, Object[] args) {
+    try {
+      return call(caller, args);
+    } catch (ReflectiveOperationException ex) {
+      throw new BatchFailure(ex);
+    }
+  }
+
+  // rethrows the exception of a batch row as call() threw it (or returns it to be thrown);
+  // fork-join may rethrow a copy of a failure, caused by the original, in the caller
+  private static InvocationTargetException rethrow(Throwable failure)
+      throws InstantiationException, IllegalAccessException {
+    Throwable cause = failure;
+    while (cause instanceof BatchFailure) {
+      cause = cause.getCause();
+    }
+    if (cause instanceof InstantiationException) {
+      throw (InstantiationException) cause;
+    } else if (cause instanceof IllegalAccessException) {
+      throw (IllegalAccessException) cause;
+    }
+    return (InvocationTargetException) cause;
+  }
+
+  // carries the checked exception of a batch row out of a stream
+  private static final class BatchFailure extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private BatchFailure(ReflectiveOperationException cause) {
+      super(cause);
+    }
+  }
+
+  // resolves what a call from clazz with args is bound to, as BinderInstance.call() does
+  private Binding bind(Class<?> clazz, Object[] args) {
+    Class<?> constructed = binder.constructedBy(clazz, functionName);
+    if (constructed == null) {
+      return new Binding(clazz, binder.resolveMethod(clazz, functionName, args), false, null);
+    } else if (constructed == clazz) {
+      return new Binding(clazz, binder.resolveConstructor(clazz, args), true, null);
+    }
+    return new Binding(clazz, null, false, constructed);
+  }
+
+  private void cache(Binding added) {
+    while (true) {
+      Binding[] current = bindings;
+      if (current == null) {
+        return; // megamorphic for good
+      }
+      for (Binding b : current) {
+        if (b.sameAs(added)) {
+          return; // cached by a racing call
+        }
+      }
+      Binding[] next = null;
+      if (current.length < POLYMORPHIC_LIMIT) {
+        next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = added;
+      }
+      if (BINDINGS.compareAndSet(this, current, next)) {
+        return;
+      }
+    }
+  }
+
+  private Object invoke(Binding b, Object caller, Object[] args)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    if (b.inner != null) {
+      return binder.newInnerInstance(caller, b.inner, args);
+    } else if (b.constructor) {
+      return b.plan.newInstance(b.receiverClass, args, binder);
+    }
+    return b.plan.invoke(caller, args, binder);
+  }
+}
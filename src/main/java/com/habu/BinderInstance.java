@@ -0,0 +1,1010 @@
+package com.habu;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A binder with its own imported class names, executable stores and resolution caches.
+ * {@link Binder}'s static methods all go through a shared default instance
+ * (see {@link Binder#getDefault()}); create separate instances to keep imports, caches and
+ * invocation settings apart (e.g. one per interpreter).
+ * Overloads are matched and arguments converted as described in {@link Binder}.
+ *
+ * <p>Instances are thread-safe. All stores are concurrent maps,
+ * the executables of each class are introspected once even when several threads
+ * first call into a class at the same time, and resolving / invoking previously
+ * seen calls does not lock.
+ */
+public final class BinderInstance {
+  private static final Object[] NO_ARGS = new Object[0];
+  // arguments shaped like those of callReturningLong / callReturningDouble, by arity
+  private static final Object[][] LONG_SHAPES = {NO_ARGS, {0L}, {0L, 0L}};
+  private static final Object[][] DOUBLE_SHAPES = {NO_ARGS, {0.0}, {0.0, 0.0}};
+
+  private final ImportRegistry imports = new ImportRegistry();
+  final ConcurrentHashMap<String, String> simpleToFullNames = imports.simpleToFullNames;
+  private final CachePolicy cachePolicy = new CachePolicy();
+  private final DispatchMetrics metrics = new DispatchMetrics();
+  private final ExecutableStore constructorStore =
+      new ExecutableStore(cachePolicy, BinderInstance::loadConstructors);
+  private final ExecutableStore methodStore = new ExecutableStore(cachePolicy, MethodTable::load);
+  private final ResolutionCache methodPlans = new ResolutionCache(cachePolicy);
+  private final ResolutionCache constructorPlans = new ResolutionCache(cachePolicy);
+  private final ClassCache<MemberTable> memberTables =
+      new ClassCache<>(cachePolicy, MemberTable::new, MemberTable::estimateBytes);
+  private volatile InvocationBackend backend = InvocationBackend.REFLECTION;
+  private volatile int compileThreshold = 100;
+  private volatile Executor importExecutor; // null for the shared background executor
+  private volatile ResolutionProfile profile = new ResolutionProfile();
+  private volatile boolean recordingResolutions;
+
+  /**
+   * Create a binder with nothing imported, invoking through
+   * {@link InvocationBackend#REFLECTION}.
+   */
+  public BinderInstance() {
+  }
+
+  /**
+   * Set the mechanism used to invoke resolved methods and constructors
+   * (the default is {@link InvocationBackend#REFLECTION}).
+   *
+   * @param invocationBackend the invocation backend to use
+   */
+  public void setInvocationBackend(InvocationBackend invocationBackend) {
+    backend = invocationBackend;
+  }
+
+  /**
+   * Returns the mechanism used to invoke resolved methods and constructors.
+   *
+   * @return the current invocation backend
+   */
+  public InvocationBackend getInvocationBackend() {
+    return backend;
+  }
+
+  /**
+   * Set how many times a resolved method / constructor overload is called through
+   * reflection before an invoker is generated for it, when using
+   * {@link InvocationBackend#TIERED}. The default is 100.
+   *
+   * @param threshold the number of calls before compiling
+   */
+  public void setCompileThreshold(int threshold) {
+    compileThreshold = threshold;
+  }
+
+  /**
+   * Returns how many reflective calls are made to an overload
+   * before {@link InvocationBackend#TIERED} compiles it.
+   *
+   * @return the compile threshold
+   */
+  public int getCompileThreshold() {
+    return compileThreshold;
+  }
+
+  /**
+   * Bound the number of entries kept in this binder's class metadata caches, evicting the
+   * least recently used entries beyond {@code maxEntries}. Each class called into takes up
+   * to five entries (its methods, its constructors, its resolved method and constructor
+   * calls, and its member table); evicted entries are rebuilt when next needed.
+   * Caches are unbounded by default.
+   * Cached metadata never stops a class (or its class loader) from being unloaded,
+   * whatever the bound.
+   *
+   * @param maxEntries the maximum number of entries, or {@link Integer#MAX_VALUE}
+   *                   for no bound
+   * @throws IllegalArgumentException if {@code maxEntries} is negative
+   */
+  public void setCacheLimit(int maxEntries) {
+    cachePolicy.setMaxEntries(maxEntries);
+  }
+
+  /**
+   * Returns the maximum number of entries kept in this binder's class metadata caches.
+   *
+   * @return the cache limit ({@link Integer#MAX_VALUE} if unbounded)
+   */
+  public int getCacheLimit() {
+    return cachePolicy.getMaxEntries();
+  }
+
+  /**
+   * Returns the number of entries in this binder's class metadata caches
+   * (see {@link #setCacheLimit(int)}).
+   *
+   * @return the cache entry count
+   */
+  public int getCacheEntryCount() {
+    return cachePolicy.size();
+  }
+
+  /**
+   * Returns an estimate of the memory retained by this binder's class metadata caches
+   * (executables, overload descriptors, resolved calls and member tables), in bytes.
+   *
+   * @return the approximate retained size in bytes
+   */
+  public long getCacheRetainedBytes() {
+    return cachePolicy.retainedBytes();
+  }
+
+  /**
+   * Evict all entries from this binder's class metadata caches.
+   * Imported class names are kept.
+   */
+  public void clearCaches() {
+    cachePolicy.clear();
+  }
+
+  /**
+   * Start or stop recording dispatch metrics: import scan, resolution and invocation
+   * counts and latencies, resolution cache hits and misses, the number of overloads
+   * scored per resolution, and call counts per method (see {@link #getMetrics()}).
+   * Metrics are disabled by default, when recording costs a single check per operation.
+   * Recorded metrics are kept when recording stops.
+   *
+   * @param enabled whether to record metrics
+   */
+  public void setMetricsEnabled(boolean enabled) {
+    metrics.setEnabled(enabled);
+  }
+
+  /**
+   * Returns whether dispatch metrics are being recorded.
+   *
+   * @return whether metrics are enabled
+   */
+  public boolean isMetricsEnabled() {
+    return metrics.isEnabled();
+  }
+
+  // the metrics recorder, or null if metrics are disabled
+  DispatchMetrics activeMetrics() {
+    return metrics.isEnabled() ? metrics : null;
+  }
+
+  /**
+   * Returns a snapshot of the recorded dispatch metrics, including the 10 most called
+   * methods (see {@link #setMetricsEnabled(boolean)}).
+   *
+   * @return the metrics recorded so far
+   */
+  public BinderMetrics getMetrics() {
+    return metrics.snapshot(DispatchMetrics.DEFAULT_HOT_METHODS);
+  }
+
+  /**
+   * Returns a snapshot of the recorded dispatch metrics
+   * (see {@link #setMetricsEnabled(boolean)}).
+   *
+   * @param hotMethodLimit the maximum number of most called methods to include
+   * @return the metrics recorded so far
+   */
+  public BinderMetrics getMetrics(int hotMethodLimit) {
+    return metrics.snapshot(hotMethodLimit);
+  }
+
+  /**
+   * Forget all recorded dispatch metrics.
+   */
+  public void resetMetrics() {
+    metrics.reset();
+  }
+
+  /**
+   * Register this binder's dispatch metrics with the platform MBean server as a
+   * {@link BinderMetricsBean}, under {@code com.habu:type=BinderMetrics,name="<name>"}.
+   * Registering doesn't enable recording (see {@link #setMetricsEnabled(boolean)}).
+   * The MBean server holds on to the binder's metrics until they are unregistered
+   * with {@link #unregisterMetricsBean()}, so unregister them before discarding the binder.
+   *
+   * @param name a name for this binder, unique among registered binders
+   * @return the object name the metrics were registered under
+   * @throws JMException if the metrics can't be registered (e.g. the name is taken)
+   */
+  public ObjectName registerMetricsBean(String name) throws JMException {
+    return metrics.register(name);
+  }
+
+  /**
+   * Unregister the MBeans registered by {@link #registerMetricsBean(String)} from the
+   * platform MBean server, freeing their names. Does nothing if none are registered.
+   *
+   * @throws JMException if the metrics can't be unregistered
+   */
+  public void unregisterMetricsBean() throws JMException {
+    metrics.unregisterAll();
+  }
+
+  /**
+   * Set how {@link #scanImport(String)} finds the classes matching an import string
+   * (the default is {@link ScanMode#PER_IMPORT}).
+   *
+   * @param mode the scan mode to use
+   */
+  public void setScanMode(ScanMode mode) {
+    imports.scanMode = mode;
+  }
+
+  /**
+   * Returns how {@link #scanImport(String)} finds the classes matching an import string.
+   *
+   * @return the current scan mode
+   */
+  public ScanMode getScanMode() {
+    return imports.scanMode;
+  }
+
+  /**
+   * Answer {@link #scanImport(String) imports} from (and record new scan results to)
+   * the import index stored in {@code file}, so that imports scanned on an earlier run
+   * need no classpath scan. The index is only used if it was saved with the same
+   * classpath and JDK; checking that reads the attributes of every file under each
+   * classpath directory (though no class files). Pass {@code null} to stop using an index.
+   *
+   * @param file the index file, which need not exist yet
+   * @throws IOException if {@code file} exists but can't be read
+   * @see #saveImportIndex()
+   */
+  public void setImportIndex(Path file) throws IOException {
+    imports.setImportIndex(file);
+  }
+
+  /**
+   * Write the scan results of all imports seen with the current import index to its file.
+   * Does nothing if no import index is set.
+   *
+   * @throws IOException if the index file can't be written
+   * @see #setImportIndex(Path)
+   */
+  public void saveImportIndex() throws IOException {
+    imports.saveImportIndex();
+  }
+
+  /**
+   * Stores public, relevant class info of the classes matching a Java import string
+   * (see {@link Binder#scanImport(String)}).
+   *
+   * @param importString the import string
+   * @return true if the scan was successful, false if it was a failure
+   */
+  public boolean scanImport(String importString) {
+    return imports.scanImport(importString, activeMetrics());
+  }
+
+  /**
+   * Import several import strings at once (see {@link #scanImport(String)}).
+   * All import strings which can't be answered from the import index or shared index
+   * are resolved with a single, multi-threaded ClassGraph scan.
+   *
+   * @param importStrings the import strings
+   * @return a map of each import string to {@code true} if its scan was successful,
+   *         or {@code false} if it was a failure (in {@code importStrings} order)
+   */
+  public Map<String, Boolean> scanImports(Collection<String> importStrings) {
+    return imports.scanImports(importStrings, activeMetrics());
+  }
+
+  /**
+   * Set the executor {@link #scanImportAsync(String)} and {@link #prefetch(String)}
+   * run on. By default they run on a shared executor starting a virtual thread per task
+   * if the JDK has (non-preview) virtual threads, or on a cached pool of daemon threads.
+   *
+   * @param executor the executor to use, or {@code null} for the default
+   */
+  public void setImportExecutor(Executor executor) {
+    importExecutor = executor;
+  }
+
+  /**
+   * Returns the executor {@link #scanImportAsync(String)} and {@link #prefetch(String)}
+   * run on.
+   *
+   * @return the import executor
+   */
+  public Executor getImportExecutor() {
+    Executor executor = importExecutor;
+    return (executor == null) ? BackgroundExecutor.shared() : executor;
+  }
+
+  /**
+   * Scan an import in the background (see {@link #scanImport(String)}), e.g. to overlap
+   * the scans of startup imports with other initialization. Calls made before the
+   * returned future completes don't see the import's classes yet.
+   *
+   * @param importString the import string
+   * @return a future completed with {@code true} if the scan was successful,
+   *         or {@code false} if it was a failure
+   * @see #setImportExecutor(Executor)
+   */
+  public CompletableFuture<Boolean> scanImportAsync(String importString) {
+    return CompletableFuture.supplyAsync(() -> scanImport(importString), getImportExecutor());
+  }
+
+  /**
+   * Introspect the methods, constructors and members of the classes registered by an
+   * import in the background, so that the first calls into them don't have to.
+   * Classes are loaded without being initialized. Chain this to a pending import with
+   * {@code scanImportAsync(s).thenCompose(ok -> prefetch(s))}.
+   * With a {@link #setCacheLimit(int) cache limit}, prefetching a large package may
+   * evict the metadata of classes in use.
+   *
+   * @param importString an import string which was scanned successfully
+   * @return a future completed with the number of classes introspected
+   *         (0 if {@code importString} wasn't imported)
+   * @see #setImportExecutor(Executor)
+   */
+  public CompletableFuture<Integer> prefetch(String importString) {
+    List<String> classNames = imports.importedClasses(importString);
+    return CompletableFuture.supplyAsync(() -> introspect(classNames), getImportExecutor());
+  }
+
+  private int introspect(List<String> classNames) {
+    int ret = 0;
+    for (String className : classNames) {
+      try {
+        Class<?> clazz = Class.forName(className, false, BinderInstance.class.getClassLoader());
+        methodStore.in(clazz);
+        constructorStore.in(clazz);
+        memberTables.get(clazz);
+        ret++;
+      } catch (ClassNotFoundException | LinkageError ex) {
+        // skipped: calls into it fail the same way
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Start or stop recording the overload resolutions of this binder, e.g. during a training
+   * run, to be saved with {@link #saveResolutions(Path)} and replayed on later runs with
+   * {@link #replayResolutions(Path)}. Starting discards anything recorded before.
+   * Only resolutions which miss the resolution cache are recorded, so call
+   * {@link #clearCaches()} first to also record calls seen before recording started.
+   *
+   * @param recording whether to record resolutions
+   */
+  public void setRecordingResolutions(boolean recording) {
+    if (recording && !recordingResolutions) {
+      profile = new ResolutionProfile();
+    }
+    recordingResolutions = recording;
+  }
+
+  /**
+   * Returns {@code true} if overload resolutions are being recorded.
+   *
+   * @return whether resolutions are recorded
+   * @see #setRecordingResolutions(boolean)
+   */
+  public boolean isRecordingResolutions() {
+    return recordingResolutions;
+  }
+
+  /**
+   * Write the recorded overload resolutions to {@code file}
+   * (see {@link #setRecordingResolutions(boolean)}).
+   *
+   * @param file the profile file
+   * @throws IOException if the file can't be written
+   */
+  public void saveResolutions(Path file) throws IOException {
+    profile.save(file);
+  }
+
+  /**
+   * Write the classes called into (or passed or declared as parameters) by the recorded
+   * overload resolutions to {@code file}, as a CDS class list. Dumping a CDS archive with
+   * {@code -Xshare:dump -XX:SharedClassListFile=file -XX:SharedArchiveFile=...} and
+   * running with that archive makes loading those classes cheaper on later runs.
+   *
+   * @param file the class list file
+   * @throws IOException if the file can't be written
+   * @see #setRecordingResolutions(boolean)
+   */
+  public void saveClassList(Path file) throws IOException {
+    profile.saveClassList(file);
+  }
+
+  /**
+   * Load the overload resolutions saved by {@link #saveResolutions(Path)} into this
+   * binder's method / constructor stores, member tables and resolution caches, so that the
+   * first calls with the recorded argument shapes (or field accesses on the recorded
+   * classes) don't introspect classes or score overloads.
+   * Resolutions already cached, and those of classes or overloads which no longer exist,
+   * are skipped; a profile saved with another classpath or JDK replays nothing.
+   *
+   * @param file the profile file
+   * @return the number of resolutions replayed
+   * @throws IOException if the file can't be read or isn't a resolution profile
+   */
+  public int replayResolutions(Path file) throws IOException {
+    int ret = 0;
+    for (ResolutionProfile.Entry e : ResolutionProfile.load(file)) {
+      ret += replay(e) ? 1 : 0;
+    }
+    return ret;
+  }
+
+  private boolean replay(ResolutionProfile.Entry e) {
+    ResolutionCache plans = e.isConstructor() ? constructorPlans : methodPlans;
+    ExecutableStore store = e.isConstructor() ? constructorStore : methodStore;
+    try {
+      ClassLoader loader = BinderInstance.class.getClassLoader();
+      Class<?> clazz = Class.forName(e.className, false, loader);
+      Class<?>[] argClasses = e.argClasses(loader);
+      imports.registerIfNeeded(clazz);
+      memberTables.get(clazz);
+      Overload winner = e.winnerIn(store.in(clazz).get(e.name));
+      if ((winner == null && e.paramClassNames != null)
+          || plans.get(clazz, e.name, argClasses, e.qualifiers) != null) {
+        return false;
+      }
+      plans.put(clazz, e.name,
+          CallPlan.of(winner, e.name, argClasses, e.qualifiers, e.isVarArgsCall()));
+      return true;
+    } catch (ClassNotFoundException | LinkageError ex) {
+      return false;
+    }
+  }
+
+  /**
+   * Return the class name of the imported class associated with
+   * {@code simpleClassName} (see {@link Binder#getFullClassName(String)}).
+   *
+   * @param simpleClassName the simple class name
+   * @return the class name
+   */
+  public String getFullClassName(String simpleClassName) {
+    return imports.getFullClassName(simpleClassName);
+  }
+
+  private static Map<String, List<Overload>> loadConstructors(Class<?> clazz) {
+    HashMap<String, List<Overload>> clTable = new HashMap<>();
+    if (!clazz.isEnum()) {
+      for (Constructor<?> c : clazz.getConstructors()) {
+        clTable.computeIfAbsent(c.getName(), k -> new ArrayList<>()).add(Overload.of(c));
+      }
+    }
+    return clTable;
+  }
+
+  /**
+   * Retrieve the {@code Method} which is the closest match for the provided name
+   * and arguments (see {@link Binder#getMethod(Object, String, List)}).
+   *
+   * @param o          the object instance or class which contains the desired
+   *                   method
+   * @param methodName the name of the method
+   * @param passedArgs the arguments to try against method parameters
+   * @return the best matching method, or {@code null} if there wasn't one
+   */
+  public Method getMethod(Object o, String methodName, List<Object> passedArgs) {
+    return getMethod(o, methodName, passedArgs.toArray());
+  }
+
+  /**
+   * Retrieve the {@code Method} which is the closest match for the provided name
+   * and arguments (see {@link Binder#getMethod(Object, String, List)}).
+   *
+   * @param o          the object instance or class which contains the desired
+   *                   method
+   * @param methodName the name of the method
+   * @param passedArgs the arguments to try against method parameters
+   * @return the best matching method, or {@code null} if there wasn't one
+   */
+  public Method getMethod(Object o, String methodName, Object[] passedArgs) {
+    return (Method) resolveMethod(Binder.tryGetClass(o), methodName, passedArgs).getExecutable();
+  }
+
+  CallPlan resolveMethod(Class<?> clazz, String methodName, Object[] passedArgs) {
+    return resolve(methodPlans, methodStore, clazz, methodName, passedArgs);
+  }
+
+  CallPlan resolveConstructor(Class<?> clazz, Object[] passedArgs) {
+    return resolve(constructorPlans, constructorStore, clazz, clazz.getName(), passedArgs);
+  }
+
+  // returns the cached call plan for passedArgs, resolving and caching one if needed
+  private CallPlan resolve(ResolutionCache plans, ExecutableStore store,
+      Class<?> clazz, String name, Object[] passedArgs) {
+    DispatchMetrics m = activeMetrics();
+    CallPlan plan = plans.get(clazz, name, passedArgs);
+    if (plan == null) {
+      ResolveOverloadEvent event = new ResolveOverloadEvent();
+      event.begin();
+      long start = (m == null) ? 0 : System.nanoTime();
+      imports.registerIfNeeded(clazz);
+      Overloads options = store.in(clazz).get(name);
+      Overload winner = OverloadResolver.getBestMatch(options, passedArgs);
+      plan = CallPlan.of(winner, name, passedArgs);
+      plans.put(clazz, name, plan);
+      if (recordingResolutions) {
+        profile.record(store == constructorStore, clazz, name, plan);
+      }
+      int scored = (options == null) ? 0 : options.withArity(passedArgs.length).length
+          + ((winner == null || plan.isVarArgsCall()) ? options.varargs().length : 0);
+      if (m != null) {
+        m.resolved(System.nanoTime() - start, scored);
+      }
+      event.end(clazz, name, scored, winner);
+    } else if (m != null) {
+      m.cacheHit();
+    }
+    return plan;
+  }
+
+  private static boolean classIsStatic(Class<?> clazz) {
+    return Modifier.isStatic(clazz.getModifiers());
+  }
+
+  Object newInnerInstance(
+      Object outerInstance, Class<?> inner, Object[] passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    if (!classIsStatic(inner)) {
+      if (outerInstance.getClass().equals(Class.class)) {
+        throw new InvocationTargetException(// -- calling a non-static inner from a static outer --
+            null, "Error: attempting to construct an inner class from a static outer class");
+      }
+      Object[] augArgs = new Object[passedArgs.length + 1];
+      augArgs[0] = outerInstance;
+      System.arraycopy(passedArgs, 0, augArgs, 1, passedArgs.length);
+      return newInstance(inner, augArgs);
+    } else {
+      return newInstance(inner, passedArgs);
+    }
+  }
+
+  /**
+   * Call a method, constructor, or inner class constructor, and return the result
+   * (see {@link Binder#call(Object, String, List)}).
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function (a simple class name for
+   *                     constructors)
+   * @param passedArgs   the arguments to resolve and pass to the method
+   * @return the result of the function call
+   * @throws InstantiationException    if a matched constructor belongs to an abstract class
+   * @throws IllegalAccessException    if the matched executable is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches {@code passedArgs}
+   * @throws InvocationTargetException if the underlying method / constructor throws an
+   *                                   exception, or a non-static inner class is
+   *                                   constructed from a static {@code caller}
+   */
+  public Object call(Object caller, String functionName, List<Object> passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, functionName, passedArgs.toArray());
+  }
+
+  /**
+   * Call a method, constructor, or inner class constructor, and return the result
+   * (see {@link Binder#call(Object, String, List)}).
+   * {@code passedArgs} is not modified.
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function (a simple class name for
+   *                     constructors)
+   * @param passedArgs   the arguments to resolve and pass to the method
+   * @return the result of the function call
+   * @throws InstantiationException    if a matched constructor belongs to an abstract class
+   * @throws IllegalAccessException    if the matched executable is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches {@code passedArgs}
+   * @throws InvocationTargetException if the underlying method / constructor throws an
+   *                                   exception, or a non-static inner class is
+   *                                   constructed from a static {@code caller}
+   */
+  public Object call(Object caller, String functionName, Object[] passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    Class<?> clazz = Binder.tryGetClass(caller);
+    Class<?> constructed = constructedBy(clazz, functionName);
+    if (constructed == null) {
+      return resolveMethod(clazz, functionName, passedArgs).invoke(caller, passedArgs, this);
+    } else if (constructed == clazz) {
+      return newInstance(clazz, passedArgs);
+    } else {
+      return newInnerInstance(caller, constructed, passedArgs);
+    }
+  }
+
+  /**
+   * Returns a new call site handle for calling {@code functionName}
+   * (see {@link BinderCallSite}). An interpreter gets one per syntactic call site
+   * and calls through it instead of {@link #call(Object, String, Object[])}.
+   *
+   * @param functionName the name of the function (a simple class name for
+   *                     constructors)
+   * @return the call site
+   */
+  public BinderCallSite callSite(String functionName) {
+    return new BinderCallSite(this, functionName);
+  }
+
+  /**
+   * Call a function taking no arguments
+   * (see {@link #call(Object, String, Object[])}).
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @return the result of the function call
+   * @throws InstantiationException    if a matched constructor belongs to an abstract class
+   * @throws IllegalAccessException    if the matched executable is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches the arguments
+   * @throws InvocationTargetException if the underlying method / constructor throws an
+   *                                   exception
+   */
+  public Object call0(Object caller, String functionName)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, functionName, NO_ARGS);
+  }
+
+  /**
+   * Call a function taking one argument
+   * (see {@link #call(Object, String, Object[])}).
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @param a            the argument
+   * @return the result of the function call
+   * @throws InstantiationException    if a matched constructor belongs to an abstract class
+   * @throws IllegalAccessException    if the matched executable is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches the arguments
+   * @throws InvocationTargetException if the underlying method / constructor throws an
+   *                                   exception
+   */
+  public Object call1(Object caller, String functionName, Object a)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, functionName, new Object[] {a});
+  }
+
+  /**
+   * Call a function taking two arguments
+   * (see {@link #call(Object, String, Object[])}).
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @param a            the first argument
+   * @param b            the second argument
+   * @return the result of the function call
+   * @throws InstantiationException    if a matched constructor belongs to an abstract class
+   * @throws IllegalAccessException    if the matched executable is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches the arguments
+   * @throws InvocationTargetException if the underlying method / constructor throws an
+   *                                   exception
+   */
+  public Object call2(Object caller, String functionName, Object a, Object b)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, functionName, new Object[] {a, b});
+  }
+
+  /**
+   * Call a function taking three arguments
+   * (see {@link #call(Object, String, Object[])}).
+   *
+   * @param caller       the object instance or class
+   * @param functionName the name of the function
+   * @param a            the first argument
+   * @param b            the second argument
+   * @param c            the third argument
+   * @return the result of the function call
+   * @throws InstantiationException    if a matched constructor belongs to an abstract class
+   * @throws IllegalAccessException    if the matched executable is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches the arguments
+   * @throws InvocationTargetException if the underlying method / constructor throws an
+   *                                   exception
+   */
+  public Object call3(Object caller, String functionName, Object a, Object b, Object c)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return call(caller, functionName, new Object[] {a, b, c});
+  }
+
+  /**
+   * Call a method taking no arguments
+   * (see {@link #callReturningLong(Object, String, long, long)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public long callReturningLong(Object caller, String methodName)
+      throws IllegalAccessException, InvocationTargetException {
+    return resolveMethod(Binder.tryGetClass(caller), methodName, LONG_SHAPES[0])
+        .invokeLong(caller, 0, 0, this);
+  }
+
+  /**
+   * Call a method taking one argument
+   * (see {@link #callReturningLong(Object, String, long, long)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public long callReturningLong(Object caller, String methodName, long a)
+      throws IllegalAccessException, InvocationTargetException {
+    return resolveMethod(Binder.tryGetClass(caller), methodName, LONG_SHAPES[1])
+        .invokeLong(caller, a, 0, this);
+  }
+
+  /**
+   * Call a method taking two {@code long} arguments (or wider parameters, or boxed ones)
+   * and return its result as a {@code long}, without boxing the arguments or the result.
+   * Overloads are resolved as for {@code Long} arguments
+   * (see {@link #call(Object, String, Object[])}) and the result, which must be a number,
+   * is converted as by a cast. Whatever the invocation backend, calls go through a method
+   * handle specialized for the resolved method.
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the first argument
+   * @param b          the second argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   * @throws NullPointerException      if no method matches the arguments
+   * @throws IllegalArgumentException  if the matched method doesn't return a number
+   */
+  public long callReturningLong(Object caller, String methodName, long a, long b)
+      throws IllegalAccessException, InvocationTargetException {
+    return resolveMethod(Binder.tryGetClass(caller), methodName, LONG_SHAPES[2])
+        .invokeLong(caller, a, b, this);
+  }
+
+  /**
+   * Call a method taking no arguments
+   * (see {@link #callReturningDouble(Object, String, double, double)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public double callReturningDouble(Object caller, String methodName)
+      throws IllegalAccessException, InvocationTargetException {
+    return resolveMethod(Binder.tryGetClass(caller), methodName, DOUBLE_SHAPES[0])
+        .invokeDouble(caller, 0, 0, this);
+  }
+
+  /**
+   * Call a method taking one argument
+   * (see {@link #callReturningDouble(Object, String, double, double)}).
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public double callReturningDouble(Object caller, String methodName, double a)
+      throws IllegalAccessException, InvocationTargetException {
+    return resolveMethod(Binder.tryGetClass(caller), methodName, DOUBLE_SHAPES[1])
+        .invokeDouble(caller, a, 0, this);
+  }
+
+  /**
+   * Call a method taking two {@code double} arguments (or wider parameters, or boxed ones)
+   * and return its result as a {@code double}, without boxing the arguments or the result.
+   * Overloads are resolved as for {@code Double} arguments
+   * (see {@link #call(Object, String, Object[])}) and the result, which must be a number,
+   * is converted as by a cast. Whatever the invocation backend, calls go through a method
+   * handle specialized for the resolved method.
+   *
+   * @param caller     the object instance or class
+   * @param methodName the name of the method
+   * @param a          the first argument
+   * @param b          the second argument
+   * @return the result of the method call
+   * @throws IllegalAccessException    if the matched method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   * @throws NullPointerException      if no method matches the arguments
+   * @throws IllegalArgumentException  if the matched method doesn't return a number
+   */
+  public double callReturningDouble(Object caller, String methodName, double a, double b)
+      throws IllegalAccessException, InvocationTargetException {
+    return resolveMethod(Binder.tryGetClass(caller), methodName, DOUBLE_SHAPES[2])
+        .invokeDouble(caller, a, b, this);
+  }
+
+  /**
+   * Call a method and return the result
+   * (see {@link Binder#invoke(Object, Method, List)}). Arguments are converted as for
+   * {@link #call(Object, String, List)}, and the call goes through the
+   * {@link #getInvocationBackend() invocation backend}: a {@code Method} returned by
+   * {@link #getMethod(Object, String, List)} reuses the plan resolved for arguments of the
+   * same shape, and plans for other methods are cached by method and argument shape.
+   *
+   * @param caller     the object which calls {@code method}
+   * @param method     the method to call
+   * @param passedArgs the arguments to pass to {@code method}
+   * @return the result of the method call
+   * @throws IllegalAccessException    if {@code method} is inaccessible
+   * @throws IllegalArgumentException  if {@code method} can't take as many arguments as
+   *                                   were passed, or an argument can't be converted
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  public Object invoke(Object caller, Method method, List<Object> passedArgs)
+      throws IllegalAccessException, InvocationTargetException {
+    if (method == null) {
+      throw new NullPointerException("Method is null / unmatched method based on passedArgs");
+    }
+    Object[] args = passedArgs.toArray();
+    Class<?> clazz = (caller == null) ? method.getDeclaringClass() : Binder.tryGetClass(caller);
+    return methodPlans.planFor(clazz, method, args).invoke(caller, args, this);
+  }
+
+  /**
+   * Returns the {@link java.lang.reflect.Constructor Constructor} of {@code clazz}
+   * which is the closest match for the arguments {@code passedArgs}, or
+   * {@code null} if no suitable constructor is found.
+   *
+   * @param clazz      the class which contains the desired constructor
+   * @param passedArgs the arguments to attempt matching against constructor
+   *                   parameters
+   * @return the best matching constructor, or {@code null} if there wasn't one
+   */
+  public Constructor<?> getConstructor(Class<?> clazz, List<Object> passedArgs) {
+    return getConstructor(clazz, passedArgs.toArray());
+  }
+
+  /**
+   * Returns the {@link java.lang.reflect.Constructor Constructor} of {@code clazz}
+   * which is the closest match for the arguments {@code passedArgs}, or
+   * {@code null} if no suitable constructor is found.
+   *
+   * @param clazz      the class which contains the desired constructor
+   * @param passedArgs the arguments to attempt matching against constructor
+   *                   parameters
+   * @return the best matching constructor, or {@code null} if there wasn't one
+   */
+  public Constructor<?> getConstructor(Class<?> clazz, Object[] passedArgs) {
+    return (Constructor<?>) resolveConstructor(clazz, passedArgs).getExecutable();
+  }
+
+  /**
+   * Returns a newly created instance of {@code clazz} generated from the best
+   * matching constructor for the arguments in {@code passedArgs}.
+   *
+   * @param clazz      class to instantiate
+   * @param passedArgs arguments for the constructor
+   * @return a new instance of {@code clazz}
+   * @throws InstantiationException    if {@code clazz} is abstract
+   * @throws IllegalAccessException    if the matched constructor is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches {@code passedArgs}
+   * @throws InvocationTargetException if the underlying constructor throws an exception
+   */
+  public Object newInstance(Class<?> clazz, List<Object> passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return newInstance(clazz, passedArgs.toArray());
+  }
+
+  /**
+   * Returns a newly created instance of {@code clazz} generated from the best
+   * matching constructor for the arguments in {@code passedArgs}.
+   * {@code passedArgs} is not modified.
+   *
+   * @param clazz      class to instantiate
+   * @param passedArgs arguments for the constructor
+   * @return a new instance of {@code clazz}
+   * @throws InstantiationException    if {@code clazz} is abstract
+   * @throws IllegalAccessException    if the matched constructor is inaccessible
+   * @throws IllegalArgumentException  if no constructor matches {@code passedArgs}
+   * @throws InvocationTargetException if the underlying constructor throws an exception
+   */
+  public Object newInstance(Class<?> clazz, Object[] passedArgs)
+      throws InstantiationException, IllegalAccessException,
+      IllegalArgumentException, InvocationTargetException {
+    return resolveConstructor(clazz, passedArgs).newInstance(clazz, passedArgs, this);
+  }
+
+  // the declared inner class of outer named innerClassName, or null
+  private Class<?> getInnerClass(Object outer, String innerClassName) {
+    return memberTables.get(Binder.tryGetClass(outer)).innerClass(innerClassName);
+  }
+
+  // the class a call to name on clazz constructs (see MemberTable.constructedBy()), or null
+  Class<?> constructedBy(Class<?> clazz, String name) {
+    return memberTables.get(clazz).constructedBy(name);
+  }
+
+  private MemberTable.Accessor getAccessor(Object o, String fieldName)
+      throws NoSuchFieldException, IllegalAccessException {
+    MemberTable.Accessor ret = memberTables.get(Binder.tryGetClass(o)).field(fieldName);
+    if (ret == null) {
+      throw new NoSuchFieldException(fieldName);
+    }
+    return ret;
+  }
+
+  /**
+   * Get the value of a field for {@code o} based on the passed {@code fieldName}
+   * String. Enum constants are treated as fields and can be accessed via this method.
+   * Enum constants are read once; other fields (including other {@code static final}
+   * ones, which may be replaced, as by {@link System#setOut}) are read through a cached
+   * accessor.
+   *
+   * @param o         object to pull a field from
+   * @param fieldName name of the field
+   * @return the field associated to {@code fieldName} or {@code null} if there
+   *         isn't one
+   */
+  public Object getField(Object o, String fieldName) {
+    try {
+      return getAccessor(o, fieldName).get(o);
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      return null; // Field not found
+    }
+  }
+
+  /**
+   * Set the value of a public, non-final field of {@code o} (a static field if {@code o}
+   * is a class). Numbers are converted to the field's numeric type and 1-length Strings
+   * to {@code char}, as for method arguments (see {@link Binder}).
+   *
+   * @param o         the object (or class) whose field to set
+   * @param fieldName the name of the field
+   * @param value     the value to set
+   * @throws NoSuchFieldException     if there is no public field named {@code fieldName}
+   * @throws IllegalAccessException   if the field is final or inaccessible
+   * @throws IllegalArgumentException if {@code o} is a class and the field isn't static,
+   *                                  or {@code value} can't be assigned to the field
+   */
+  public void setField(Object o, String fieldName, Object value)
+      throws NoSuchFieldException, IllegalAccessException {
+    getAccessor(o, fieldName).set(o, value);
+  }
+
+  /**
+   * Get the value of a field or static inner class for {@code o}
+   * based on the passed {@code fieldName}.
+   * Enum constants are treated as fields and can be accessed via this method.
+   *
+   * @param o         object to pull a field / inner class from
+   * @param fieldName name of the field / inner class
+   * @return the field / inner class
+   */
+  public Object getFieldOrInnerClass(Object o, String fieldName) {
+    try {
+      Class<?> innerClazz = getInnerClass(o, fieldName);
+      if (innerClazz != null) {
+        return innerClazz;
+      } else {
+        return getField(o, fieldName);
+      }
+    } catch (Exception ex) {
+      ex.printStackTrace();
+      return null; // Field not found
+    }
+  }
+}
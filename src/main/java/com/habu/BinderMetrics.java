@@ -0,0 +1,273 @@
+package com.habu;
+
+import java.util.List;
+
+/**
+ * A snapshot of the dispatch metrics of a {@link BinderInstance}
+ * (see {@link BinderInstance#setMetricsEnabled(boolean)}).
+ * Resolution timings only cover resolutions which missed the resolution cache
+ * (i.e. overload scoring); cache hits are only counted.
+ */
+public final class BinderMetrics {
+  private final Latency scanImport;
+  private final Latency resolve;
+  private final Latency invoke;
+  private final Latency newInstance;
+  private final long cacheHits;
+  private final long cacheMisses;
+  private final long overloadsScored;
+  private final List<HotMethod> hotMethods;
+
+  BinderMetrics(Latency scanImport, Latency resolve, Latency invoke, Latency newInstance,
+      long cacheHits, long cacheMisses, long overloadsScored, List<HotMethod> hotMethods) {
+    this.scanImport = scanImport;
+    this.resolve = resolve;
+    this.invoke = invoke;
+    this.newInstance = newInstance;
+    this.cacheHits = cacheHits;
+    this.cacheMisses = cacheMisses;
+    this.overloadsScored = overloadsScored;
+    this.hotMethods = hotMethods;
+  }
+
+  /**
+   * Returns the timings of {@link BinderInstance#scanImport(String) scanImport} calls
+   * (and of {@link BinderInstance#scanImports(java.util.Collection) scanImports} calls,
+   * timed as one scan per batch).
+   *
+   * @return the import scan latencies
+   */
+  public Latency getScanImport() {
+    return scanImport;
+  }
+
+  /**
+   * Returns the timings of method / constructor overload resolution (cache misses only).
+   *
+   * @return the resolution latencies
+   */
+  public Latency getResolve() {
+    return resolve;
+  }
+
+  /**
+   * Returns the timings of method invocations made through {@code call}.
+   *
+   * @return the invocation latencies
+   */
+  public Latency getInvoke() {
+    return invoke;
+  }
+
+  /**
+   * Returns the timings of constructor invocations.
+   *
+   * @return the construction latencies
+   */
+  public Latency getNewInstance() {
+    return newInstance;
+  }
+
+  /**
+   * Returns the number of resolutions answered by the resolution cache.
+   *
+   * @return the cache hit count
+   */
+  public long getCacheHits() {
+    return cacheHits;
+  }
+
+  /**
+   * Returns the number of resolutions which had to score overloads.
+   *
+   * @return the cache miss count
+   */
+  public long getCacheMisses() {
+    return cacheMisses;
+  }
+
+  /**
+   * Returns the fraction of resolutions answered by the resolution cache.
+   *
+   * @return the cache hit rate, or 0 if nothing was resolved
+   */
+  public double getCacheHitRate() {
+    long total = cacheHits + cacheMisses;
+    return (total == 0) ? 0 : (double) cacheHits / total;
+  }
+
+  /**
+   * Returns the total number of overloads scored by resolutions.
+   *
+   * @return the number of overloads scored
+   */
+  public long getOverloadsScored() {
+    return overloadsScored;
+  }
+
+  /**
+   * Returns the mean number of overloads scored per resolution (cache misses only).
+   *
+   * @return the mean number of overloads scored, or 0 if nothing was resolved
+   */
+  public double getMeanOverloadsScored() {
+    return (cacheMisses == 0) ? 0 : (double) overloadsScored / cacheMisses;
+  }
+
+  /**
+   * Returns the most called (class, method) pairs, most called first.
+   *
+   * @return the hottest methods / constructors
+   */
+  public List<HotMethod> getHotMethods() {
+    return hotMethods;
+  }
+
+  /**
+   * The recorded durations of one operation, in power-of-two nanosecond buckets.
+   */
+  public static final class Latency {
+    private final long[] bucketCounts;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+
+    Latency(long[] bucketCounts, long totalNanos, long maxNanos) {
+      this.bucketCounts = bucketCounts;
+      this.totalNanos = totalNanos;
+      this.maxNanos = maxNanos;
+      long sum = 0;
+      for (long c : bucketCounts) {
+        sum += c;
+      }
+      count = sum;
+    }
+
+    /**
+     * Returns the number of recorded operations.
+     *
+     * @return the count
+     */
+    public long getCount() {
+      return count;
+    }
+
+    /**
+     * Returns the total duration of the recorded operations.
+     *
+     * @return the total duration in nanoseconds
+     */
+    public long getTotalNanos() {
+      return totalNanos;
+    }
+
+    /**
+     * Returns the mean duration of the recorded operations.
+     *
+     * @return the mean duration in nanoseconds, or 0 if none were recorded
+     */
+    public double getMeanNanos() {
+      return (count == 0) ? 0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Returns the longest recorded duration.
+     *
+     * @return the maximum duration in nanoseconds
+     */
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    /**
+     * Returns the histogram: element {@code i} is the number of operations which took
+     * {@code [2^i, 2^(i+1))} nanoseconds.
+     *
+     * @return a copy of the bucket counts
+     */
+    public long[] getBucketCounts() {
+      return bucketCounts.clone();
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the recorded durations
+     * (the upper end of the bucket which contains it).
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the percentile's upper bound in nanoseconds, or 0 if none were recorded
+     */
+    public long percentileNanos(double percentile) {
+      long rank = (long) Math.ceil(count * percentile / 100);
+      long seen = 0;
+      for (int i = 0; i < bucketCounts.length && count > 0; i++) {
+        seen += bucketCounts[i];
+        if (seen >= rank) {
+          return (2L << i) - 1;
+        }
+      }
+      return 0;
+    }
+
+    /**
+     * Returns an upper bound of the median duration (see {@link #percentileNanos(double)}).
+     *
+     * @return the median's upper bound in nanoseconds
+     */
+    public long getP50Nanos() {
+      return percentileNanos(50);
+    }
+
+    /**
+     * Returns an upper bound of the 99th percentile duration
+     * (see {@link #percentileNanos(double)}).
+     *
+     * @return the 99th percentile's upper bound in nanoseconds
+     */
+    public long getP99Nanos() {
+      return percentileNanos(99);
+    }
+  }
+
+  /**
+   * A (class, method) pair and the number of times it was called.
+   * Constructors are named {@code <init>}.
+   */
+  public static final class HotMethod {
+    private final String className;
+    private final String methodName;
+    private final long calls;
+
+    HotMethod(String className, String methodName, long calls) {
+      this.className = className;
+      this.methodName = methodName;
+      this.calls = calls;
+    }
+
+    /**
+     * Returns the name of the class declaring the method.
+     *
+     * @return the class name
+     */
+    public String getClassName() {
+      return className;
+    }
+
+    /**
+     * Returns the method name ({@code <init>} for constructors).
+     *
+     * @return the method name
+     */
+    public String getMethodName() {
+      return methodName;
+    }
+
+    /**
+     * Returns the number of recorded calls.
+     *
+     * @return the call count
+     */
+    public long getCalls() {
+      return calls;
+    }
+  }
+}
@@ -0,0 +1,80 @@
+package com.habu;
+
+import java.util.List;
+import javax.management.MXBean;
+
+/**
+ * The JMX view of a binder's dispatch metrics
+ * (see {@link BinderInstance#registerMetricsBean(String)}).
+ * Every attribute reads the live metrics; see {@link BinderMetrics} for their meaning.
+ */
+@MXBean
+public interface BinderMetricsBean {
+  /**
+   * Returns whether metrics are being recorded.
+   *
+   * @return whether metrics are enabled
+   */
+  boolean isEnabled();
+
+  /**
+   * See {@link BinderMetrics#getScanImport()}.
+   *
+   * @return the import scan latencies
+   */
+  BinderMetrics.Latency getScanImport();
+
+  /**
+   * See {@link BinderMetrics#getResolve()}.
+   *
+   * @return the resolution latencies
+   */
+  BinderMetrics.Latency getResolve();
+
+  /**
+   * See {@link BinderMetrics#getInvoke()}.
+   *
+   * @return the invocation latencies
+   */
+  BinderMetrics.Latency getInvoke();
+
+  /**
+   * See {@link BinderMetrics#getNewInstance()}.
+   *
+   * @return the construction latencies
+   */
+  BinderMetrics.Latency getNewInstance();
+
+  /**
+   * See {@link BinderMetrics#getCacheHits()}.
+   *
+   * @return the cache hit count
+   */
+  long getCacheHits();
+
+  /**
+   * See {@link BinderMetrics#getCacheMisses()}.
+   *
+   * @return the cache miss count
+   */
+  long getCacheMisses();
+
+  /**
+   * See {@link BinderMetrics#getOverloadsScored()}.
+   *
+   * @return the number of overloads scored
+   */
+  long getOverloadsScored();
+
+  /**
+   * See {@link BinderMetrics#getHotMethods()}.
+   *
+   * @return the hottest methods / constructors
+   */
+  List<BinderMetrics.HotMethod> getHotMethods();
+
+  /**
+   * Forget all recorded metrics.
+   */
+  void reset();
+}
@@ -0,0 +1,205 @@
+package com.habu;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * The size bound and eviction bookkeeping shared by the {@link ClassCache}s of a binder.
+ * Every (cache, class) pair is one entry. Once there are more than
+ * {@link #setMaxEntries(int) maxEntries} entries, entries not used recently are evicted
+ * (by a second-chance clock over the entries in admission order, so eviction costs
+ * O(1) per entry rather than a sort), and entries of classes which have been garbage
+ * collected are dropped as they are noticed.
+ * Trackers only reference their class and cache weakly, so this bookkeeping never keeps
+ * a class (or its class loader) alive, and the per-class {@link ClassValue} entries holding
+ * the trackers never keep a discarded binder's caches alive.
+ */
+final class CachePolicy {
+  static final int UNBOUNDED = Integer.MAX_VALUE;
+  private static final int MIN_COMPACTION = 64;
+
+  // live trackers in admission order (and retired ones not yet polled / compacted away)
+  private final ConcurrentLinkedQueue<Tracker> clock = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger size = new AtomicInteger();
+  private final AtomicInteger retiredInClock = new AtomicInteger(); // approximate
+  private final ReferenceQueue<Class<?>> collected = new ReferenceQueue<>();
+  private volatile int maxEntries = UNBOUNDED;
+
+  /**
+   * The eviction bookkeeping of one cache entry.
+   */
+  static final class Tracker extends WeakReference<Class<?>> {
+    private static final AtomicIntegerFieldUpdater<Tracker> RETIRED =
+        AtomicIntegerFieldUpdater.newUpdater(Tracker.class, "retired");
+
+    private final WeakReference<ClassCache<?>> owner;
+    private volatile boolean referenced; // used since the clock last passed it
+    private volatile int retired; // 1 once evicted or collected
+    private volatile long bytes; // approximate, so racy updates are tolerated
+
+    private Tracker(ClassCache<?> owner, Class<?> clazz, ReferenceQueue<Class<?>> queue) {
+      super(clazz, queue);
+      this.owner = new WeakReference<>(owner);
+    }
+
+    /**
+     * Add to the approximate retained size of the entry.
+     *
+     * @param added the number of bytes to add
+     */
+    void addBytes(long added) {
+      bytes += added;
+    }
+
+    // true for exactly one caller
+    private boolean retire() {
+      return RETIRED.compareAndSet(this, 0, 1);
+    }
+
+    private boolean isRetired() {
+      return retired != 0;
+    }
+  }
+
+  /**
+   * Start tracking a newly loaded entry, evicting entries not used recently
+   * if that takes the entry count over the bound.
+   *
+   * @param owner the cache holding the entry
+   * @param clazz the class the entry belongs to
+   * @param bytes the approximate retained size of the entry
+   * @return the entry's tracker
+   */
+  Tracker admit(ClassCache<?> owner, Class<?> clazz, long bytes) {
+    drainCollected();
+    Tracker ret = new Tracker(owner, clazz, collected);
+    ret.bytes = bytes;
+    clock.add(ret);
+    int newSize = size.incrementAndGet();
+    int max = maxEntries;
+    if (newSize > max) {
+      evict(newSize - max + max / 8); // evict a little extra so evictions are batched
+    }
+    return ret;
+  }
+
+  /**
+   * Mark an entry as just used.
+   *
+   * @param tracker the tracker of the entry
+   */
+  void touch(Tracker tracker) {
+    if (maxEntries != UNBOUNDED && !tracker.referenced) {
+      tracker.referenced = true; // only written when not set, to keep hits read-only
+    }
+  }
+
+  private void drainCollected() {
+    for (Object t = collected.poll(); t != null; t = collected.poll()) {
+      if (((Tracker) t).retire()) {
+        size.decrementAndGet();
+        retiredInClock.incrementAndGet();
+      }
+    }
+    // unbounded caches never run the clock, so collected trackers are compacted away
+    if (retiredInClock.get() > Math.max(MIN_COMPACTION, size.get())) {
+      retiredInClock.set(0);
+      clock.removeIf(Tracker::isRetired);
+    }
+  }
+
+  // runs the clock until count entries were evicted (or every entry had its second chance)
+  private void evict(int count) {
+    int evicted = 0;
+    int budget = 2 * (size.get() + retiredInClock.get()) + count;
+    for (int i = 0; i < budget && evicted < count; i++) {
+      Tracker t = clock.poll();
+      if (t == null) {
+        return;
+      } else if (t.isRetired()) {
+        retiredInClock.decrementAndGet();
+      } else if (t.referenced) {
+        t.referenced = false;
+        clock.add(t); // second chance
+      } else if (t.retire()) {
+        size.decrementAndGet();
+        removeFromOwner(t);
+        evicted++;
+      }
+    }
+  }
+
+  private static void removeFromOwner(Tracker tracker) {
+    ClassCache<?> owner = tracker.owner.get();
+    Class<?> clazz = tracker.get();
+    if (owner != null && clazz != null) {
+      owner.remove(clazz);
+    }
+  }
+
+  /**
+   * Set the maximum number of entries, evicting entries if there are more than that.
+   *
+   * @param max the maximum number of entries, or {@link #UNBOUNDED}
+   * @throws IllegalArgumentException if {@code max} is negative
+   */
+  void setMaxEntries(int max) {
+    if (max < 0) {
+      throw new IllegalArgumentException("Negative cache limit: " + max);
+    }
+    maxEntries = max;
+    int size = size();
+    if (size > max) {
+      evict(size - max);
+    }
+  }
+
+  /**
+   * Returns the maximum number of entries.
+   *
+   * @return the maximum number of entries, or {@link #UNBOUNDED}
+   */
+  int getMaxEntries() {
+    return maxEntries;
+  }
+
+  /**
+   * Returns the number of entries held by the caches.
+   *
+   * @return the entry count
+   */
+  int size() {
+    drainCollected();
+    return size.get();
+  }
+
+  /**
+   * Returns the approximate number of bytes retained by the entries.
+   *
+   * @return the approximate retained size
+   */
+  long retainedBytes() {
+    drainCollected();
+    long ret = 0;
+    for (Tracker t : clock) {
+      ret += t.isRetired() ? 0 : t.bytes;
+    }
+    return ret;
+  }
+
+  /**
+   * Evict every entry.
+   */
+  void clear() {
+    for (Tracker t = clock.poll(); t != null; t = clock.poll()) {
+      if (t.retire()) {
+        size.decrementAndGet();
+        removeFromOwner(t);
+      }
+    }
+    retiredInClock.set(0);
+  }
+}
@@ -0,0 +1,155 @@
+package com.habu;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds {@link MethodHandle}s for resolved overloads with a {@link CallPlan}'s
+ * argument conversions built in as argument filters.
+ * Handles are of type {@code (Object caller, Object[] args)Object}, where {@code caller}
+ * is ignored for static methods and constructors.
+ */
+final class CallHandles {
+  static final int MAX_PRIMITIVE_ARGS = 2;
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodHandle STRING_TO_CHAR;
+  private static final MethodHandle LIST_TO_ARRAY;
+  private static final MethodHandle[] NUMBER_VALUES = new MethodHandle[NumRank.values().length];
+
+  static {
+    try {
+      STRING_TO_CHAR = MethodHandles.insertArguments(
+          LOOKUP.findVirtual(String.class, "charAt", MethodType.methodType(char.class, int.class)),
+          1, 0);
+      LIST_TO_ARRAY = LOOKUP.findVirtual(
+          List.class, "toArray", MethodType.methodType(Object[].class));
+      NUMBER_VALUES[NumRank.BYTE.ordinal()] = numberValue("byteValue", byte.class);
+      NUMBER_VALUES[NumRank.SHORT.ordinal()] = numberValue("shortValue", short.class);
+      NUMBER_VALUES[NumRank.CHAR.ordinal()] = numberValue("intValue", int.class);
+      NUMBER_VALUES[NumRank.INT.ordinal()] = numberValue("intValue", int.class);
+      NUMBER_VALUES[NumRank.LONG.ordinal()] = numberValue("longValue", long.class);
+      NUMBER_VALUES[NumRank.FLOAT.ordinal()] = numberValue("floatValue", float.class);
+      NUMBER_VALUES[NumRank.DOUBLE.ordinal()] = numberValue("doubleValue", double.class);
+    } catch (ReflectiveOperationException ex) {
+      throw new ExceptionInInitializerError(ex);
+    }
+  }
+
+  private CallHandles() {
+  }
+
+  private static MethodHandle numberValue(String name, Class<?> primitive)
+      throws ReflectiveOperationException {
+    return LOOKUP.findVirtual(Number.class, name, MethodType.methodType(primitive));
+  }
+
+  /**
+   * Returns the filter which converts an argument for {@code paramClass}
+   * according to {@code conversion}, or {@code null} for no conversion.
+   *
+   * @param conversion the planned conversion
+   * @param paramRank  the numeric rank of {@code paramClass}
+   * @param paramClass the parameter type
+   * @return a {@code (Object)paramClass} filter, or {@code null}
+   */
+  static MethodHandle filterFor(
+      ArgConversions.Conversion conversion, NumRank paramRank, Class<?> paramClass) {
+    MethodHandle filter;
+    switch (conversion) {
+      case TO_CHAR:
+        filter = STRING_TO_CHAR;
+        break;
+      case TO_NUMBER:
+        filter = NUMBER_VALUES[paramRank.ordinal()];
+        break;
+      case TO_ARRAY:
+        filter = LIST_TO_ARRAY;
+        break;
+      default:
+        return null;
+    }
+    return MethodHandles.explicitCastArguments(
+        filter, MethodType.methodType(paramClass, Object.class));
+  }
+
+  /**
+   * Build the spread, type-erased handle for {@code executable}.
+   *
+   * @param executable the method or constructor
+   * @param filters    per-parameter conversion filters ({@code null} entries for none)
+   * @return the method handle
+   * @throws IllegalAccessException if {@code executable} is inaccessible
+   */
+  static MethodHandle build(Executable executable, MethodHandle[] filters)
+      throws IllegalAccessException {
+    MethodHandle handle;
+    boolean hasCaller = false;
+    if (executable instanceof Constructor) {
+      handle = LOOKUP.unreflectConstructor((Constructor<?>) executable).asFixedArity();
+    } else {
+      handle = LOOKUP.unreflect((Method) executable).asFixedArity();
+      hasCaller = !Modifier.isStatic(executable.getModifiers());
+    }
+    int offset = hasCaller ? 1 : 0;
+    handle = MethodHandles.filterArguments(handle, offset, filters);
+    handle = handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+    handle = handle.asSpreader(Object[].class, filters.length);
+    if (!hasCaller) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return handle;
+  }
+
+  /**
+   * Build the unboxed handle for {@code method}, which must have been resolved for
+   * {@code primitive} arguments (so each parameter is {@code primitive}, a wider primitive,
+   * or a reference type it boxes to). The handle is of type
+   * {@code (Object caller, primitive, primitive)primitive}, where arguments past the
+   * method's arity are ignored and the result is converted as by a cast.
+   *
+   * @param method    the method
+   * @param primitive {@code long.class} or {@code double.class}
+   * @return the method handle
+   * @throws IllegalAccessException   if {@code method} is inaccessible
+   * @throws IllegalArgumentException if {@code method} doesn't return a number
+   */
+  static MethodHandle buildPrimitive(Method method, Class<?> primitive)
+      throws IllegalAccessException {
+    if (NumRank.rank(method.getReturnType()) == NumRank.NAN) {
+      throw new IllegalArgumentException(method + " does not return a number");
+    }
+    MethodHandle handle = LOOKUP.unreflect(method).asFixedArity();
+    int offset = Modifier.isStatic(method.getModifiers()) ? 0 : 1;
+    MethodType type = handle.type();
+    // unbox wrapper parameters (e.g. Double) and the result first, since primitive casts
+    // don't box to other wrappers
+    MethodType unwrapped = type.changeReturnType(unwrap(type.returnType()));
+    for (int i = offset; i < type.parameterCount(); i++) {
+      unwrapped = unwrapped.changeParameterType(i, unwrap(type.parameterType(i)));
+    }
+    int arity = method.getParameterCount();
+    MethodType target = MethodType.methodType(primitive, Collections.nCopies(arity, primitive))
+        .insertParameterTypes(0, Object.class);
+    if (offset == 0) {
+      target = target.dropParameterTypes(0, 1);
+    }
+    handle = MethodHandles.explicitCastArguments(handle.asType(unwrapped), target);
+    if (offset == 0) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return MethodHandles.dropArguments(
+        handle, 1 + arity, Collections.nCopies(MAX_PRIMITIVE_ARGS - arity, primitive));
+  }
+
+  private static Class<?> unwrap(Class<?> clazz) {
+    return MethodType.methodType(clazz).unwrap().returnType();
+  }
+}
@@ -0,0 +1,498 @@
+package com.habu;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+/**
+ * The result of resolving an overload for one argument "shape": the winning
+ * {@code Executable} (or {@code null} if nothing matched) plus the per-argument
+ * conversions needed to call it.
+ * The shape of an argument list is the class of each argument, along with
+ * the {@link NumRank} of {@link java.math.BigDecimal BigDecimal} arguments
+ * (when recasting) and whether {@code String} arguments are 1-length, since those
+ * are the only argument values that overload scoring looks at.
+ * A plan for a varargs overload matched with variable arity also packs the trailing
+ * arguments into the varargs array.
+ */
+final class CallPlan {
+
+  private static final int NOT_RECAST = -1;
+
+  private final Executable executable;
+  private final String name;
+  private final Class<?>[] paramClasses;
+  // per argument: null for null arguments, the class itself for classes of the bootstrap
+  // loader (which are never unloaded), otherwise a weak reference to it, so that plans
+  // cached for one class don't keep the classes of arguments passed to it from unloading
+  private final Object[] argClasses;
+  private final int[] argQualifiers;
+  private final ArgConversions conversions; // null if nothing matched
+  private volatile MethodHandle handle;
+  private volatile MethodHandle longHandle;
+  private volatile MethodHandle doubleHandle;
+  private volatile CompiledInvoker compiled;
+  private volatile boolean compileAttempted;
+  private int calls; // racy, but only used to decide when to compile
+  private String metricsKey;
+
+  private CallPlan(Overload overload, String name,
+      Class<?>[] argClasses, int[] argQualifiers, boolean varArgsCall) {
+    this.name = name;
+    executable = (overload == null) ? null : overload.executable;
+    paramClasses = (overload == null) ? null : overload.paramClasses;
+    this.argClasses = new Object[argClasses.length];
+    for (int i = 0; i < argClasses.length; i++) {
+      Class<?> c = argClasses[i];
+      this.argClasses[i] = (c == null || c.getClassLoader() == null) ? c
+          : new WeakReference<Class<?>>(c);
+    }
+    this.argQualifiers = argQualifiers;
+    conversions = (overload == null) ? null
+        : ArgConversions.of(overload, argClasses, varArgsCall);
+  }
+
+  /**
+   * Build the plan for calling {@code overload} with arguments shaped like {@code args}.
+   *
+   * @param overload the best-matched overload, or {@code null} if there wasn't one
+   * @param name     the name the overload was resolved for
+   * @param args     the arguments the overload was resolved for
+   * @return the call plan
+   */
+  static CallPlan of(Overload overload, String name, Object[] args) {
+    Class<?>[] argClasses = new Class<?>[args.length];
+    for (int i = 0; i < args.length; i++) {
+      argClasses[i] = (args[i] == null) ? null : args[i].getClass();
+    }
+    return new CallPlan(overload, name, argClasses, qualifiersOf(args),
+        overload != null && OverloadResolver.isVarArgsCall(overload, args));
+  }
+
+  /**
+   * Build the plan for calling {@code overload} with arguments of a recorded shape
+   * (see {@link ResolutionProfile}), without the arguments themselves.
+   *
+   * @param overload    the overload resolved for the shape, or {@code null} if there wasn't one
+   * @param name        the name the overload was resolved for
+   * @param argClasses  the classes of the arguments ({@code null} for null arguments)
+   * @param qualifiers  the {@link #qualifiersOf(Object[]) qualifiers} of the arguments
+   * @param varArgsCall whether {@code overload} is called with variable arity
+   * @return the call plan
+   */
+  static CallPlan of(Overload overload, String name,
+      Class<?>[] argClasses, int[] qualifiers, boolean varArgsCall) {
+    return new CallPlan(overload, name, argClasses, qualifiers.clone(), varArgsCall);
+  }
+
+  /**
+   * Returns the value-dependent part of the shape of each of {@code args}
+   * (see class doc), to be passed to {@link #matches(Object[], int[])}.
+   *
+   * @param args the arguments to be passed
+   * @return the argument qualifiers
+   */
+  static int[] qualifiersOf(Object[] args) {
+    int[] ret = new int[args.length];
+    for (int i = 0; i < args.length; i++) {
+      ret[i] = qualifierOf(args[i]);
+    }
+    return ret;
+  }
+
+  // value-dependent part of an argument's shape (see class doc)
+  private static int qualifierOf(Object arg) {
+    if (arg instanceof BigDecimal) {
+      return Binder.isRecastingBigDecimals()
+          ? NumRank.rank((BigDecimal) arg).ordinal() : NOT_RECAST;
+    } else if (arg instanceof String) {
+      return ((String) arg).length() == 1 ? 1 : 0;
+    }
+    return 0;
+  }
+
+  /**
+   * Returns {@code true} if {@code args} has the same shape as the arguments
+   * this plan was built for.
+   *
+   * @param args       the arguments to check
+   * @param qualifiers the {@link #qualifiersOf(Object[]) qualifiers} of {@code args}
+   * @return whether this plan applies to {@code args}
+   */
+  boolean matches(Object[] args, int[] qualifiers) {
+    if (args.length != argClasses.length) {
+      return false;
+    }
+    for (int i = 0; i < argClasses.length; i++) {
+      Object arg = args[i];
+      if (arg == null) {
+        if (argClasses[i] != null) {
+          return false;
+        }
+      } else if (arg.getClass() != argClass(i) || qualifiers[i] != argQualifiers[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code true} if this plan was built for arguments of the given shape.
+   *
+   * @param classes    the classes of the arguments ({@code null} for null arguments)
+   * @param qualifiers the {@link #qualifiersOf(Object[]) qualifiers} of the arguments
+   * @return whether this plan applies to arguments of that shape
+   */
+  boolean hasShape(Class<?>[] classes, int[] qualifiers) {
+    return Arrays.equals(argClasses(), classes) && Arrays.equals(argQualifiers, qualifiers);
+  }
+
+  /**
+   * Returns the classes of the arguments this plan was built for.
+   *
+   * @return the argument classes ({@code null} for null arguments,
+   *         and for classes unloaded since)
+   */
+  Class<?>[] argClasses() {
+    Class<?>[] ret = new Class<?>[argClasses.length];
+    for (int i = 0; i < ret.length; i++) {
+      ret[i] = argClass(i);
+    }
+    return ret;
+  }
+
+  // the class of argument i (null for null arguments or if the class was unloaded)
+  private Class<?> argClass(int i) {
+    Object c = argClasses[i];
+    return (c instanceof WeakReference) ? (Class<?>) ((WeakReference<?>) c).get() : (Class<?>) c;
+  }
+
+  /**
+   * Returns the {@link #qualifiersOf(Object[]) qualifiers} of the arguments
+   * this plan was built for.
+   *
+   * @return the argument qualifiers; not to be modified
+   */
+  int[] argQualifiers() {
+    return argQualifiers;
+  }
+
+  /**
+   * Returns the approximate number of bytes retained by this plan
+   * (not counting its executable or a generated invoker).
+   *
+   * @return the approximate retained size
+   */
+  long estimateBytes() {
+    return 96 + 32L * argClasses.length;
+  }
+
+  /**
+   * Returns the resolved overload, or {@code null} if no overload matched.
+   *
+   * @return the resolved overload
+   */
+  Executable getExecutable() {
+    return executable;
+  }
+
+  /**
+   * Returns {@code true} if this plan calls a varargs overload with variable arity.
+   *
+   * @return whether trailing arguments are packed into the varargs array
+   */
+  boolean isVarArgsCall() {
+    return conversions != null && conversions.packFrom() >= 0;
+  }
+
+  /**
+   * Apply this plan's conversions to {@code args}
+   * (see {@link ArgConversions}), packing trailing
+   * arguments into the varargs array for variable arity calls.
+   * {@code args} itself is returned when no argument needs converting,
+   * otherwise it is copied and left unchanged.
+   *
+   * @param args the arguments to convert
+   * @return an Object array of all arguments, altered or otherwise
+   */
+  Object[] fitArgs(Object[] args) {
+    return conversions.fit(args);
+  }
+
+  // the className#methodName the metrics count calls of this plan's executable by
+  private String metricsKey() {
+    String ret = metricsKey;
+    if (ret == null) {
+      String name = (executable instanceof Constructor) ? "<init>" : executable.getName();
+      ret = executable.getDeclaringClass().getName() + '#' + name;
+      metricsKey = ret;
+    }
+    return ret;
+  }
+
+  // the class a failure is reported against: the planned method's declaring class, or the
+  // caller's class if nothing matched (null callers are static calls, so never throw here)
+  private Class<?> failedClass(Object caller) {
+    if (executable != null) {
+      return executable.getDeclaringClass();
+    }
+    return (caller == null) ? null : Binder.tryGetClass(caller);
+  }
+
+  // lazily builds (and caches) the method handle with this plan's conversions built in
+  private MethodHandle getHandle() throws IllegalAccessException {
+    MethodHandle ret = handle;
+    if (ret == null) {
+      MethodHandle[] filters = new MethodHandle[paramClasses.length];
+      for (int i = 0; i < filters.length; i++) {
+        filters[i] = conversions.filterFor(i);
+      }
+      ret = CallHandles.build(executable, filters);
+      handle = ret;
+    }
+    return ret;
+  }
+
+  // lazily builds (and caches) the unboxed handle (see CallHandles.buildPrimitive())
+  private MethodHandle getPrimitiveHandle(Class<?> primitive) throws IllegalAccessException {
+    if (executable == null) {
+      throw new NullPointerException("Method is null / unmatched method based on passedArgs");
+    } else if (isVarArgsCall()) {
+      throw new IllegalArgumentException(
+          "Cannot call " + executable + " with variable arity without boxing");
+    }
+    boolean isLong = primitive == long.class;
+    MethodHandle ret = isLong ? longHandle : doubleHandle;
+    if (ret == null) {
+      ret = CallHandles.buildPrimitive((Method) executable, primitive);
+      if (isLong) {
+        longHandle = ret;
+      } else {
+        doubleHandle = ret;
+      }
+    }
+    return ret;
+  }
+
+  // Character args for non-char numeric primitives would need a widening which
+  // the generated invoker can't do (it expects the exact wrapper type)
+  private boolean isCompilable() {
+    int fixed = isVarArgsCall() ? conversions.packFrom() : paramClasses.length;
+    for (int i = 0; i < fixed; i++) {
+      if (argClass(i) == Character.class && paramClasses[i].isPrimitive()
+          && paramClasses[i] != char.class) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private CompiledInvoker getCompiled() {
+    if (!compileAttempted) {
+      compiled = isCompilable() ? CompiledInvoker.compile(executable) : null;
+      compileAttempted = true;
+    }
+    return compiled;
+  }
+
+  // true if this call should go through plain reflection
+  private boolean isCold(InvocationBackend backend, int compileThreshold) {
+    if (backend == InvocationBackend.REFLECTION) {
+      return true;
+    } else if (backend == InvocationBackend.TIERED && calls < compileThreshold) {
+      calls++;
+      return true;
+    }
+    return false;
+  }
+
+  // the checks Method.invoke() makes before calling, made before calling through a handle
+  // or compiled invoker, which would fail on a bad receiver or argument too (but as if the
+  // callee had thrown)
+  private void checkCall(Object caller) {
+    if (executable instanceof Method && !Modifier.isStatic(executable.getModifiers())
+        && !executable.getDeclaringClass().isInstance(caller)) {
+      if (caller == null) {
+        throw new NullPointerException("Cannot invoke " + executable + " on null");
+      }
+      throw new IllegalArgumentException("Error: " + caller.getClass().getName()
+          + " is not an instance of " + executable.getDeclaringClass().getName());
+    } else if (!conversions.fits()) {
+      throw new IllegalArgumentException("Error: argument type mismatch calling " + executable);
+    }
+  }
+
+  private Object invokeHot(Object caller, Object[] args, InvocationBackend backend)
+      throws IllegalAccessException, InvocationTargetException {
+    CompiledInvoker invoker = (backend == InvocationBackend.TIERED) ? getCompiled() : null;
+    MethodHandle h = (invoker == null) ? getHandle() : null;
+    checkCall(caller);
+    // a variable arity call's handle has no filters, it takes the packed arguments
+    Object[] callArgs = (invoker != null || isVarArgsCall()) ? fitArgs(args) : args;
+    try {
+      return (invoker != null) ? invoker.invoke(caller, callArgs)
+          : (Object) h.invokeExact(caller, callArgs);
+    } catch (Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new InvocationTargetException(t); // only the callee can throw here
+    }
+  }
+
+  /**
+   * Invoke the planned method on {@code caller}.
+   *
+   * @param caller the object which calls the method (ignored for static methods)
+   * @param args   the arguments to pass
+   * @param binder the binder whose invocation settings to use
+   * @return the result of the method call
+   * @throws IllegalAccessException    see {@link Method#invoke(Object, Object...)}
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  Object invoke(Object caller, Object[] args, BinderInstance binder)
+      throws IllegalAccessException, InvocationTargetException {
+    DispatchMetrics metrics = (executable == null) ? null : binder.activeMetrics();
+    long start = (metrics == null) ? 0 : System.nanoTime();
+    try {
+      if (executable == null) {
+        throw new NullPointerException("Method is null / unmatched method based on passedArgs");
+      }
+      return invokeMethod(caller, args, binder);
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      InvocationFailureEvent.emit(failedClass(caller), name, ex);
+      throw ex;
+    } finally {
+      if (metrics != null) {
+        metrics.invoked(metricsKey(), false, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * Invoke the planned method, resolved for {@code long} arguments, on {@code caller}
+   * without boxing (see {@link BinderInstance#callReturningLong(Object, String, long, long)}).
+   * Arguments past the method's arity are ignored.
+   *
+   * @param caller the object which calls the method (ignored for static methods)
+   * @param a      the first argument
+   * @param b      the second argument
+   * @param binder the binder whose metrics to record
+   * @return the result of the method call, cast to {@code long}
+   * @throws IllegalAccessException    if the method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  long invokeLong(Object caller, long a, long b, BinderInstance binder)
+      throws IllegalAccessException, InvocationTargetException {
+    DispatchMetrics metrics = (executable == null) ? null : binder.activeMetrics();
+    long start = (metrics == null) ? 0 : System.nanoTime();
+    try {
+      MethodHandle h = getPrimitiveHandle(long.class);
+      checkCall(caller);
+      try {
+        return (long) h.invokeExact(caller, a, b);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      InvocationFailureEvent.emit(failedClass(caller), name, ex);
+      throw ex;
+    } finally {
+      if (metrics != null) {
+        metrics.invoked(metricsKey(), false, System.nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * Invoke the planned method, resolved for {@code double} arguments, on {@code caller}
+   * without boxing (see {@link #invokeLong(Object, long, long, BinderInstance)}).
+   *
+   * @param caller the object which calls the method (ignored for static methods)
+   * @param a      the first argument
+   * @param b      the second argument
+   * @param binder the binder whose metrics to record
+   * @return the result of the method call, cast to {@code double}
+   * @throws IllegalAccessException    if the method is inaccessible
+   * @throws InvocationTargetException if the underlying method throws an exception
+   */
+  double invokeDouble(Object caller, double a, double b, BinderInstance binder)
+      throws IllegalAccessException, InvocationTargetException {
+    DispatchMetrics metrics = (executable == null) ? null : binder.activeMetrics();
+    long start = (metrics == null) ? 0 : System.nanoTime();
+    try {
+      MethodHandle h = getPrimitiveHandle(double.class);
+      checkCall(caller);
+      try {
+        return (double) h.invokeExact(caller, a, b);
+      } catch (Error e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      InvocationFailureEvent.emit(failedClass(caller), name, ex);
+      throw ex;
+    } finally {
+      if (metrics != null) {
+        metrics.invoked(metricsKey(), false, System.nanoTime() - start);
+      }
+    }
+  }
+
+  private Object invokeMethod(Object caller, Object[] args, BinderInstance binder)
+      throws IllegalAccessException, InvocationTargetException {
+    InvocationBackend backend = binder.getInvocationBackend();
+    if (isCold(backend, binder.getCompileThreshold())) {
+      return ((Method) executable).invoke(caller, fitArgs(args));
+    }
+    return invokeHot(caller, args, backend);
+  }
+
+  /**
+   * Create a new instance with the planned constructor.
+   *
+   * @param clazz  the class being instantiated (for error reporting)
+   * @param args   the arguments to pass
+   * @param binder the binder whose invocation settings to use
+   * @return the new instance
+   * @throws InstantiationException    if the class is abstract
+   * @throws IllegalAccessException    see {@link Constructor#newInstance(Object...)}
+   * @throws InvocationTargetException if the underlying constructor throws an exception
+   */
+  Object newInstance(Class<?> clazz, Object[] args, BinderInstance binder)
+      throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    DispatchMetrics metrics = (executable == null) ? null : binder.activeMetrics();
+    long start = (metrics == null) ? 0 : System.nanoTime();
+    try {
+      if (executable == null) {
+        throw new IllegalArgumentException(
+            "Cannot match a constructor for " + clazz.getName() + " to passedArgs");
+      }
+      return construct(args, binder);
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      InvocationFailureEvent.emit(clazz, name, ex);
+      throw ex;
+    } finally {
+      if (metrics != null) {
+        metrics.invoked(metricsKey(), true, System.nanoTime() - start);
+      }
+    }
+  }
+
+  private Object construct(Object[] args, BinderInstance binder)
+      throws InstantiationException, IllegalAccessException, InvocationTargetException {
+    InvocationBackend backend = binder.getInvocationBackend();
+    if (isCold(backend, binder.getCompileThreshold())) {
+      return ((Constructor<?>) executable).newInstance(fitArgs(args));
+    }
+    return invokeHot(null, args, backend);
+  }
+}
@@ -0,0 +1,97 @@
+package com.habu;
+
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * A per-class cache whose values are stored with {@link ClassValue}, so a cached value
+ * (which may reference the class and its class loader) never keeps the class alive.
+ * Since each class's {@code ClassValue} map strongly holds its entries until the
+ * {@code ClassValue} itself is unreachable, nothing in an entry may reference this cache
+ * (trackers hold it weakly), or long-lived classes would keep discarded caches alive.
+ * Each value is loaded once, even when several threads ask for it at the same time,
+ * and evicted according to the binder's {@link CachePolicy}. An evicted value is simply
+ * loaded again the next time it is needed.
+ *
+ * @param <V> the type of the cached values
+ */
+final class ClassCache<V> {
+  private final CachePolicy policy;
+  private final Function<Class<?>, V> loader;
+  private final ToLongFunction<V> weigher;
+  private final ClassValue<Entry<V>> entries = new ClassValue<>() {
+    @Override
+    protected Entry<V> computeValue(Class<?> type) {
+      return new Entry<>();
+    }
+  };
+
+  private static final class Entry<V> {
+    private volatile V value;
+    private CachePolicy.Tracker tracker;
+  }
+
+  /**
+   * Create a cache.
+   *
+   * @param policy  the policy deciding when values are evicted
+   * @param loader  loads the value of a class
+   * @param weigher returns the approximate retained size of a loaded value in bytes
+   */
+  ClassCache(CachePolicy policy, Function<Class<?>, V> loader, ToLongFunction<V> weigher) {
+    this.policy = policy;
+    this.loader = loader;
+    this.weigher = weigher;
+  }
+
+  /**
+   * Returns the value of {@code clazz}, loading it if it isn't cached.
+   *
+   * @param clazz the class
+   * @return the value of {@code clazz}
+   */
+  V get(Class<?> clazz) {
+    Entry<V> e = entries.get(clazz);
+    V ret = e.value;
+    if (ret == null) {
+      return load(clazz, e);
+    }
+    policy.touch(e.tracker);
+    return ret;
+  }
+
+  private V load(Class<?> clazz, Entry<V> e) {
+    synchronized (e) {
+      V ret = e.value;
+      if (ret == null) {
+        ret = loader.apply(clazz);
+        e.tracker = policy.admit(this, clazz, weigher.applyAsLong(ret));
+        e.value = ret;
+      }
+      return ret;
+    }
+  }
+
+  /**
+   * Add to the approximate retained size of the value of {@code clazz}, e.g. after
+   * adding to a cached collection. Does nothing if the value isn't cached.
+   *
+   * @param clazz the class
+   * @param bytes the number of bytes to add
+   */
+  void addBytes(Class<?> clazz, long bytes) {
+    CachePolicy.Tracker tracker = entries.get(clazz).tracker;
+    if (tracker != null) {
+      tracker.addBytes(bytes);
+    }
+  }
+
+  /**
+   * Drop the value of {@code clazz}.
+   *
+   * @param clazz the class
+   */
+  void remove(Class<?> clazz) {
+    entries.remove(clazz);
+  }
+}
@@ -0,0 +1,47 @@
+package com.habu;
+
+import io.github.classgraph.ClassInfo;
+
+/**
+ * The class info an import scan registers a class by: its name, simple name and
+ * whether it is an enum / (static) inner class. Read from ClassGraph without loading
+ * the class itself.
+ */
+final class ClassEntry {
+  static final int ENUM = 1;
+  static final int INNER = 2;
+  static final int STATIC = 4;
+
+  final String name;
+  final String simpleName;
+  final int flags;
+
+  ClassEntry(String name, String simpleName, int flags) {
+    this.name = name;
+    this.simpleName = simpleName;
+    this.flags = flags;
+  }
+
+  /**
+   * Create the entry for a scanned class.
+   *
+   * @param ci the scanned class info
+   * @return the class entry
+   */
+  static ClassEntry of(ClassInfo ci) {
+    int flags = (ci.isEnum() ? ENUM : 0)
+        | (ci.isInnerClass() ? INNER : 0)
+        | (ci.isStatic() ? STATIC : 0);
+    return new ClassEntry(ci.getName(), ci.getSimpleName(), flags);
+  }
+
+  /**
+   * Returns {@code true} for outer classes and static inner classes,
+   * the only classes an import registers.
+   *
+   * @return whether this class can be imported
+   */
+  boolean isImportable() {
+    return (flags & INNER) == 0 || (flags & STATIC) != 0;
+  }
+}
@@ -0,0 +1,162 @@
+package com.habu;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * A {@link LambdaMetafactory}-generated invoker for a hot method / constructor.
+ * The generated class calls the target directly (invokevirtual, invokestatic etc.),
+ * so the JIT can inline through it. Only targets taking up to {@link #MAX_SLOTS} values
+ * (the caller of an instance method counts as one) can be compiled.
+ * Arguments must already be converted to the exact (boxed) parameter types.
+ */
+final class CompiledInvoker {
+  static final int MAX_SLOTS = 3;
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final Class<?>[] FUNCTIONS = {Fn0.class, Fn1.class, Fn2.class, Fn3.class};
+  private static final Class<?>[] PROCEDURES = {Proc0.class, Proc1.class, Proc2.class, Proc3.class};
+
+  interface Fn0 {
+    Object apply();
+  }
+
+  interface Fn1 {
+    Object apply(Object a);
+  }
+
+  interface Fn2 {
+    Object apply(Object a, Object b);
+  }
+
+  interface Fn3 {
+    Object apply(Object a, Object b, Object c);
+  }
+
+  interface Proc0 {
+    void apply();
+  }
+
+  interface Proc1 {
+    void apply(Object a);
+  }
+
+  interface Proc2 {
+    void apply(Object a, Object b);
+  }
+
+  interface Proc3 {
+    void apply(Object a, Object b, Object c);
+  }
+
+  private final Object function;
+  private final int slots;
+  private final boolean hasCaller;
+
+  private CompiledInvoker(Object function, int slots, boolean hasCaller) {
+    this.function = function;
+    this.slots = slots;
+    this.hasCaller = hasCaller;
+  }
+
+  /**
+   * Generate an invoker for {@code executable}.
+   *
+   * @param executable the method or constructor to compile
+   * @return the compiled invoker, or {@code null} if {@code executable} can't be compiled
+   */
+  static CompiledInvoker compile(Executable executable) {
+    try {
+      MethodHandle impl;
+      boolean hasCaller = false;
+      if (executable instanceof Constructor) {
+        impl = LOOKUP.unreflectConstructor((Constructor<?>) executable);
+      } else {
+        impl = LOOKUP.unreflect((Method) executable);
+        hasCaller = !Modifier.isStatic(executable.getModifiers());
+      }
+      MethodType implType = impl.type();
+      int slots = implType.parameterCount();
+      if (slots > MAX_SLOTS) {
+        return null;
+      }
+      boolean isVoid = implType.returnType() == void.class;
+      MethodType samType = MethodType.genericMethodType(slots);
+      MethodType instantiatedType = implType.wrap();
+      if (isVoid) {
+        samType = samType.changeReturnType(void.class);
+        instantiatedType = instantiatedType.changeReturnType(void.class);
+      }
+      Class<?> iface = (isVoid ? PROCEDURES : FUNCTIONS)[slots];
+      CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply",
+          MethodType.methodType(iface), samType, impl, instantiatedType);
+      return new CompiledInvoker(site.getTarget().invoke(), slots, hasCaller);
+    } catch (Throwable t) {
+      return null; // inaccessible or otherwise unsupported target
+    }
+  }
+
+  private Object slot(int slot, Object caller, Object[] args) {
+    if (hasCaller) {
+      return (slot == 0) ? caller : args[slot - 1];
+    }
+    return args[slot];
+  }
+
+  /**
+   * Call the compiled target.
+   *
+   * @param caller the object which calls the method (ignored for static methods
+   *               and constructors)
+   * @param args   the converted arguments
+   * @return the result, or {@code null} for {@code void} methods
+   */
+  Object invoke(Object caller, Object[] args) {
+    switch (slots) {
+      case 0:
+        return (function instanceof Fn0) ? ((Fn0) function).apply() : run0();
+      case 1:
+        return call1(slot(0, caller, args));
+      case 2:
+        return call2(slot(0, caller, args), slot(1, caller, args));
+      default:
+        return call3(slot(0, caller, args), slot(1, caller, args), slot(2, caller, args));
+    }
+  }
+
+  private Object run0() {
+    ((Proc0) function).apply();
+    return null;
+  }
+
+  private Object call1(Object a) {
+    if (function instanceof Fn1) {
+      return ((Fn1) function).apply(a);
+    }
+    ((Proc1) function).apply(a);
+    return null;
+  }
+
+  private Object call2(Object a, Object b) {
+    if (function instanceof Fn2) {
+      return ((Fn2) function).apply(a, b);
+    }
+    ((Proc2) function).apply(a, b);
+    return null;
+  }
+
+  private Object call3(Object a, Object b, Object c) {
+    if (function instanceof Fn3) {
+      return ((Fn3) function).apply(a, b, c);
+    }
+    ((Proc3) function).apply(a, b, c);
+    return null;
+  }
+}
@@ -0,0 +1,201 @@
+package com.habu;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+/**
+ * Records the dispatch metrics of a binder into striped counters
+ * (see {@link BinderInstance#setMetricsEnabled(boolean)}). Callers check
+ * {@link BinderInstance#activeMetrics()} first, so nothing is timed or counted
+ * while metrics are disabled.
+ */
+final class DispatchMetrics implements BinderMetricsBean {
+  static final int DEFAULT_HOT_METHODS = 10;
+  private static final int MAX_TRACKED_METHODS = 4096; // calls to others aren't counted
+
+  private volatile boolean enabled;
+  private final LatencyHistogram scanImport = new LatencyHistogram();
+  private final LatencyHistogram resolve = new LatencyHistogram();
+  private final LatencyHistogram invoke = new LatencyHistogram();
+  private final LatencyHistogram newInstance = new LatencyHistogram();
+  private final LongAdder cacheHits = new LongAdder();
+  private final LongAdder cacheMisses = new LongAdder();
+  private final LongAdder overloadsScored = new LongAdder();
+  private final ConcurrentHashMap<String, LongAdder> calls = new ConcurrentHashMap<>();
+  private final Set<ObjectName> registered = ConcurrentHashMap.newKeySet();
+
+  void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Record an import scan.
+   *
+   * @param nanos how long the scan took
+   */
+  void scanned(long nanos) {
+    scanImport.record(nanos);
+  }
+
+  /**
+   * Record a resolution answered by the resolution cache.
+   */
+  void cacheHit() {
+    cacheHits.increment();
+  }
+
+  /**
+   * Record a resolution which had to score overloads.
+   *
+   * @param nanos  how long the resolution took
+   * @param scored the number of overloads scored
+   */
+  void resolved(long nanos, int scored) {
+    cacheMisses.increment();
+    overloadsScored.add(scored);
+    resolve.record(nanos);
+  }
+
+  /**
+   * Record a method / constructor invocation.
+   *
+   * @param key         the {@code className#methodName} of the invoked executable
+   * @param constructor whether a constructor was invoked
+   * @param nanos       how long the invocation took
+   */
+  void invoked(String key, boolean constructor, long nanos) {
+    LongAdder counter = calls.get(key);
+    if (counter == null && calls.size() < MAX_TRACKED_METHODS) {
+      counter = calls.computeIfAbsent(key, k -> new LongAdder());
+    }
+    if (counter != null) {
+      counter.increment();
+    }
+    (constructor ? newInstance : invoke).record(nanos);
+  }
+
+  /**
+   * Returns a snapshot of the metrics.
+   *
+   * @param hotMethodLimit the maximum number of hot methods to include
+   * @return the metrics
+   */
+  BinderMetrics snapshot(int hotMethodLimit) {
+    return new BinderMetrics(getScanImport(), getResolve(), getInvoke(), getNewInstance(),
+        getCacheHits(), getCacheMisses(), getOverloadsScored(), hotMethods(hotMethodLimit));
+  }
+
+  private List<BinderMetrics.HotMethod> hotMethods(int limit) {
+    List<BinderMetrics.HotMethod> ret = new ArrayList<>();
+    for (Map.Entry<String, LongAdder> e : calls.entrySet()) {
+      String key = e.getKey();
+      int split = key.lastIndexOf('#');
+      ret.add(new BinderMetrics.HotMethod(
+          key.substring(0, split), key.substring(split + 1), e.getValue().sum()));
+    }
+    ret.sort(Comparator.comparingLong(BinderMetrics.HotMethod::getCalls).reversed());
+    return List.copyOf(ret.subList(0, Math.min(limit, ret.size())));
+  }
+
+  /**
+   * Register these metrics with the platform MBean server.
+   *
+   * @param name the {@code name} key of the MBean's object name
+   * @return the object name the MBean was registered under
+   * @throws JMException if the MBean can't be registered
+   */
+  ObjectName register(String name) throws JMException {
+    ObjectName objectName = new ObjectName(
+        "com.habu:type=BinderMetrics,name=" + ObjectName.quote(name));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(
+        new StandardMBean(this, BinderMetricsBean.class, true), objectName);
+    registered.add(objectName);
+    return objectName;
+  }
+
+  /**
+   * Unregister every MBean {@link #register(String) registered} for these metrics
+   * (skipping those unregistered from the MBean server directly since).
+   *
+   * @throws JMException if an MBean can't be unregistered
+   */
+  void unregisterAll() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName objectName : registered) {
+      registered.remove(objectName);
+      try {
+        server.unregisterMBean(objectName);
+      } catch (InstanceNotFoundException ex) {
+        // already unregistered
+      }
+    }
+  }
+
+  @Override
+  public BinderMetrics.Latency getScanImport() {
+    return scanImport.snapshot();
+  }
+
+  @Override
+  public BinderMetrics.Latency getResolve() {
+    return resolve.snapshot();
+  }
+
+  @Override
+  public BinderMetrics.Latency getInvoke() {
+    return invoke.snapshot();
+  }
+
+  @Override
+  public BinderMetrics.Latency getNewInstance() {
+    return newInstance.snapshot();
+  }
+
+  @Override
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  @Override
+  public long getCacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  @Override
+  public long getOverloadsScored() {
+    return overloadsScored.sum();
+  }
+
+  @Override
+  public List<BinderMetrics.HotMethod> getHotMethods() {
+    return hotMethods(DEFAULT_HOT_METHODS);
+  }
+
+  @Override
+  public void reset() {
+    scanImport.reset();
+    resolve.reset();
+    invoke.reset();
+    newInstance.reset();
+    cacheHits.reset();
+    cacheMisses.reset();
+    overloadsScored.reset();
+    calls.clear();
+  }
+}
@@ -0,0 +1,56 @@
+package com.habu;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Contains a map of (class, (executableName, Overloads)), for caching executables
+ * along with their parameter data (see {@link Overload}), indexed by arity
+ * (see {@link Overloads}).
+ * Each class's executables are loaded once (even when several threads ask for them
+ * at the same time) and are never modified after being stored, so reads need no locking.
+ * Classes are held as in a {@link ClassCache}, so they may be evicted and unloaded.
+ */
+final class ExecutableStore {
+  private final ClassCache<Map<String, Overloads>> table;
+
+  /**
+   * Create a store.
+   *
+   * @param policy the policy deciding when the executables of a class are evicted
+   * @param loader builds the (executableName, Overloads) map of a class
+   */
+  ExecutableStore(CachePolicy policy, Function<Class<?>, Map<String, List<Overload>>> loader) {
+    table = new ClassCache<>(policy, clazz -> index(loader.apply(clazz)),
+        ExecutableStore::estimateBytes);
+  }
+
+  /**
+   * Get the map of executables stored in {@code clazz}, loading them if they haven't
+   * been stored yet.
+   *
+   * @param clazz the class
+   * @return a map of executables stored in {@code clazz}
+   */
+  Map<String, Overloads> in(Class<?> clazz) {
+    return table.get(clazz);
+  }
+
+  private static Map<String, Overloads> index(Map<String, List<Overload>> loaded) {
+    HashMap<String, Overloads> ret = new HashMap<>();
+    for (Map.Entry<String, List<Overload>> e : loaded.entrySet()) {
+      ret.put(e.getKey(), Overloads.of(e.getValue()));
+    }
+    return ret;
+  }
+
+  private static long estimateBytes(Map<String, Overloads> stored) {
+    long ret = 64;
+    for (Map.Entry<String, Overloads> e : stored.entrySet()) {
+      ret += 80 + 2L * e.getKey().length() + e.getValue().estimateBytes();
+    }
+    return ret;
+  }
+}
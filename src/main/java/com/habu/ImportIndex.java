@@ -0,0 +1,356 @@
+package com.habu;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemNotFoundException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * A persistent index of import scan results, so that imports seen on an earlier run can
+ * be answered without running ClassGraph.
+ * The index file is keyed by a fingerprint of the classpath, module path and JDK
+ * (see {@link #currentFingerprint()}); a file with another fingerprint is ignored
+ * (and replaced on the next {@link #save()}).
+ * The file is memory-mapped on opening and only the section of a requested import is decoded.
+ * The mapping is released by {@link #close()} (and {@link #save()}), rather than when the
+ * buffer is garbage collected, since Windows won't replace a mapped file.
+ *
+ * <p>Format (big-endian): {@code int MAGIC, int VERSION, long fingerprint, int importCount},
+ * then per import {@code str importString, int sectionLength} followed by a section of
+ * {@code int classCount} and per class {@code str name, str simpleName, byte flags}.
+ * A {@code str} is an {@code int} byte length followed by UTF-8 bytes.
+ */
+final class ImportIndex {
+  private static final int MAGIC = 0x4a504958; // "JPIX"
+  private static final int VERSION = 1;
+  private static final long FNV_BASIS = 0xcbf29ce484222325L; // FNV-1a
+
+  private final Path file;
+  private final long fingerprint;
+  private ByteBuffer mapped; // guarded by this once opened; null once closed
+  private final Map<String, Integer> mappedSections = new ConcurrentHashMap<>();
+  private final Map<String, List<ClassEntry>> entries = new ConcurrentHashMap<>();
+
+  private ImportIndex(Path file, long fingerprint, ByteBuffer mapped) {
+    this.file = file;
+    this.fingerprint = fingerprint;
+    this.mapped = mapped;
+  }
+
+  /**
+   * Open the index stored in {@code file} for the current classpath and JDK.
+   *
+   * @param file the index file (which need not exist yet)
+   * @return the index
+   * @throws IOException if {@code file} exists but can't be read
+   */
+  static ImportIndex open(Path file) throws IOException {
+    return open(file, currentFingerprint());
+  }
+
+  /**
+   * Open the index stored in {@code file}, ignoring its contents unless they were
+   * saved with {@code fingerprint}.
+   *
+   * @param file        the index file (which need not exist yet)
+   * @param fingerprint the expected fingerprint
+   * @return the index
+   * @throws IOException if {@code file} exists but can't be read
+   */
+  static ImportIndex open(Path file, long fingerprint) throws IOException {
+    if (!Files.isRegularFile(file)) {
+      return new ImportIndex(file, fingerprint, null);
+    }
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    ImportIndex ret = new ImportIndex(file, fingerprint, buffer);
+    if (!ret.readSections()) {
+      ret.mappedSections.clear(); // stale or corrupt index
+    }
+    return ret;
+  }
+
+  // reads the import strings and section offsets of the mapped file
+  private boolean readSections() {
+    try {
+      if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION
+          || mapped.getLong() != fingerprint) {
+        return false;
+      }
+      int importCount = mapped.getInt();
+      for (int i = 0; i < importCount; i++) {
+        String importString = readString(mapped);
+        int sectionLength = mapped.getInt();
+        mappedSections.put(importString, mapped.position());
+        mapped.position(mapped.position() + sectionLength);
+      }
+      return true;
+    } catch (RuntimeException ex) {
+      return false;
+    }
+  }
+
+  private static String readString(ByteBuffer buffer) {
+    byte[] bytes = new byte[checkedLength(buffer, buffer.getInt())];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  // a length read from a corrupt file may exceed what's left of it
+  private static int checkedLength(ByteBuffer buffer, int length) {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new BufferUnderflowException();
+    }
+    return length;
+  }
+
+  // the section at offset, or null if it's corrupt (which invalidates the whole file,
+  // so that its imports are scanned again and rewritten on the next save()) or the file
+  // was closed since; synchronized with close(), as reading an unmapped buffer crashes
+  private synchronized List<ClassEntry> readSectionOrNull(int offset) {
+    try {
+      return (mapped == null) ? null : readSection(offset);
+    } catch (RuntimeException ex) {
+      mappedSections.clear();
+      return null;
+    }
+  }
+
+  private List<ClassEntry> readSection(int offset) {
+    ByteBuffer buffer = mapped.duplicate();
+    buffer.position(offset);
+    int classCount = checkedLength(buffer, buffer.getInt());
+    List<ClassEntry> ret = new ArrayList<>(classCount);
+    for (int i = 0; i < classCount; i++) {
+      String name = readString(buffer);
+      String simpleName = readString(buffer);
+      ret.add(new ClassEntry(name, simpleName, buffer.get()));
+    }
+    return ret;
+  }
+
+  /**
+   * Returns the indexed scan result of {@code importString},
+   * or {@code null} if it isn't indexed.
+   *
+   * @param importString the import string
+   * @return the classes found by scanning {@code importString}, or {@code null}
+   */
+  List<ClassEntry> get(String importString) {
+    List<ClassEntry> ret = entries.get(importString);
+    if (ret == null) {
+      Integer offset = mappedSections.get(importString);
+      if (offset != null) {
+        ret = entries.computeIfAbsent(importString, k -> readSectionOrNull(offset));
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Add the scan result of {@code importString} to the index.
+   *
+   * @param importString the import string
+   * @param classes      the classes found by scanning {@code importString}
+   */
+  void put(String importString, List<ClassEntry> classes) {
+    entries.put(importString, classes);
+  }
+
+  /**
+   * Release the mapping of the index file. Imports not decoded yet are dropped from the
+   * index (to be scanned again).
+   */
+  synchronized void close() {
+    ByteBuffer buffer = mapped;
+    mapped = null;
+    mappedSections.clear();
+    if (buffer != null) {
+      unmap(buffer);
+    }
+  }
+
+  private static void unmap(ByteBuffer buffer) {
+    try {
+      // there is no public API to unmap a buffer before it is collected
+      Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+      theUnsafe.setAccessible(true);
+      unsafeClass.getMethod("invokeCleaner", ByteBuffer.class)
+          .invoke(theUnsafe.get(null), buffer);
+    } catch (ReflectiveOperationException | RuntimeException ex) {
+      // unmapped when collected
+    }
+  }
+
+  /**
+   * Write all indexed imports to the index file, decoding those only mapped so far and
+   * {@link #close() closing} the file first so that it can be replaced.
+   *
+   * @throws IOException if the file can't be written
+   */
+  void save() throws IOException {
+    for (String importString : mappedSections.keySet()) {
+      get(importString);
+    }
+    close();
+    Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "jpi", ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(fingerprint);
+      out.writeInt(entries.size());
+      for (Map.Entry<String, List<ClassEntry>> e : entries.entrySet()) {
+        writeString(out, e.getKey());
+        ByteArrayOutputStream section = new ByteArrayOutputStream();
+        writeSection(new DataOutputStream(section), e.getValue());
+        out.writeInt(section.size());
+        section.writeTo(out);
+      }
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void writeSection(DataOutputStream out, List<ClassEntry> classes)
+      throws IOException {
+    out.writeInt(classes.size());
+    for (ClassEntry ce : classes) {
+      writeString(out, ce.name);
+      writeString(out, ce.simpleName);
+      out.writeByte(ce.flags);
+    }
+    out.flush();
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Returns a fingerprint of the JDK (home directory and version) and of the current class
+   * path and module path: the path, size and modification time of each entry and of the
+   * jars named by the {@code Class-Path} of its manifest, and for directories, those of
+   * every file under them (as adding, removing or recompiling a nested class changes
+   * neither of the directory's own).
+   * This costs a manifest read per jar and a file attribute read per file under each
+   * directory (e.g. per class of an exploded build output), but reads no class files.
+   *
+   * @return the fingerprint
+   */
+  static long currentFingerprint() {
+    return fingerprint(System.getProperty("java.class.path", ""),
+        System.getProperty("jdk.module.path", ""));
+  }
+
+  /**
+   * Returns the fingerprint of the JDK and the given class or module paths
+   * (see {@link #currentFingerprint()}).
+   *
+   * @param paths the paths, each a list of entries separated by {@link File#pathSeparator}
+   * @return the fingerprint
+   */
+  static long fingerprint(String... paths) {
+    long hash = fnv(FNV_BASIS, System.getProperty("java.home") + '|' + Runtime.version());
+    Set<Path> seen = new HashSet<>();
+    for (String path : paths) {
+      for (String entry : path.split(File.pathSeparator)) {
+        if (!entry.isEmpty()) {
+          hash = fnvEntry(hash, Path.of(entry), seen);
+        }
+      }
+    }
+    return hash;
+  }
+
+  private static long fnv(long hash, String s) {
+    for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
+      hash = (hash ^ (b & 0xff)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  private static long fnvEntry(long hash, Path entry, Set<Path> seen) {
+    if (!seen.add(entry.toAbsolutePath().normalize())) {
+      return hash;
+    }
+    hash = fnv(hash, '|' + entry.toString());
+    if (Files.isDirectory(entry)) {
+      return fnvTree(hash, entry);
+    }
+    File f = entry.toFile();
+    hash = fnv(hash, ":" + f.length() + ':' + f.lastModified());
+    for (Path p : manifestClassPath(entry)) {
+      hash = fnvEntry(hash, p, seen);
+    }
+    return hash;
+  }
+
+  // the files under dir, combined in any order (so they needn't be collected and sorted)
+  private static long fnvTree(long hash, Path dir) {
+    long[] sum = {0};
+    try {
+      Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+          sum[0] += fnv(FNV_BASIS, dir.relativize(file).toString() + ':' + attrs.size() + ':'
+              + attrs.lastModifiedTime().toMillis());
+          return FileVisitResult.CONTINUE;
+        }
+      });
+    } catch (IOException ex) {
+      return fnv(hash, ":unreadable:" + System.nanoTime()); // matches no saved index
+    }
+    return fnv(hash, ":" + sum[0]);
+  }
+
+  // the local entries of the Class-Path of a jar's manifest, resolved against the jar
+  private static List<Path> manifestClassPath(Path jar) {
+    if (!Files.isRegularFile(jar)) {
+      return List.of();
+    }
+    List<Path> ret = new ArrayList<>();
+    try (JarFile jarFile = new JarFile(jar.toFile())) {
+      Manifest manifest = jarFile.getManifest();
+      String classPath = (manifest == null) ? null
+          : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+      for (String url : (classPath == null) ? new String[0] : classPath.trim().split("\\s+")) {
+        try {
+          ret.add(Path.of(jar.toUri().resolve(url)));
+        } catch (IllegalArgumentException | FileSystemNotFoundException ex) {
+          // not a local file: left out
+        }
+      }
+    } catch (IOException ex) {
+      // not a jar
+    }
+    return ret;
+  }
+}
@@ -0,0 +1,289 @@
+package com.habu;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * The imports of a binder: the import strings scanned so far and the
+ * (simpleName, className) map of the classes they registered, along with how new imports
+ * are found (see {@link ScanMode} and {@link ImportIndex}).
+ */
+final class ImportRegistry {
+  // import string -> the names of the classes it registered
+  private final Map<String, List<String>> scanNames = new ConcurrentHashMap<>();
+  private final Set<String> registeredClasses = ConcurrentHashMap.newKeySet();
+  final ConcurrentHashMap<String, String> simpleToFullNames = new ConcurrentHashMap<>();
+  volatile ImportIndex importIndex;
+  volatile ScanMode scanMode = ScanMode.PER_IMPORT;
+
+  /**
+   * Use the import index stored in {@code file}, or no index if {@code file} is null
+   * (see {@link BinderInstance#setImportIndex(Path)}).
+   *
+   * @param file the index file, which need not exist yet
+   * @throws IOException if {@code file} exists but can't be read
+   */
+  void setImportIndex(Path file) throws IOException {
+    ImportIndex old = importIndex;
+    importIndex = (file == null) ? null : ImportIndex.open(file);
+    if (old != null) {
+      old.close();
+    }
+  }
+
+  /**
+   * Write the current import index to its file, if there is one.
+   *
+   * @throws IOException if the index file can't be written
+   */
+  void saveImportIndex() throws IOException {
+    ImportIndex index = importIndex;
+    if (index != null) {
+      index.save();
+    }
+  }
+
+  private void registerClass(String className, String simpleClassName) {
+    registeredClasses.add(className);
+    simpleToFullNames.put(simpleClassName, className);
+  }
+
+  private static String replaceLast(String string, String from, String to) {
+    int lastIndex = string.lastIndexOf(from);
+    if (lastIndex < 0) {
+      return string;
+    }
+    String tail = string.substring(lastIndex).replaceFirst(from, to);
+    return string.substring(0, lastIndex) + tail;
+  }
+
+  // will try and find inner classes to store class info by replacing '.' with '$'
+  private static ScanResult resolveForInnerClasses(
+      ScanResult res, String importString, ScanImportEvent event) {
+    if (!res.getPackageInfo().isEmpty()) {
+      return res;
+    }
+    String findClassString = importString;
+    do {
+      if (!findClassString.contains(".")) {
+        break;
+      }
+      res.close();
+      event.innerClassAttempts++;
+      res = new ClassGraph()
+          .enableSystemJarsAndModules()
+          .acceptClasses(findClassString)
+          .scan();
+      findClassString = replaceLast(findClassString, ".", "\\$");
+    } while (res.getPackageInfo().isEmpty());
+    return res;
+  }
+
+  private boolean wasImported(String importString) {
+    return scanNames.containsKey(importString);
+  }
+
+  /**
+   * Returns the names of the classes registered by {@code importString}.
+   *
+   * @param importString the import string
+   * @return the class names, or an empty list if {@code importString} wasn't imported
+   */
+  List<String> importedClasses(String importString) {
+    return scanNames.getOrDefault(importString, List.of());
+  }
+
+  /**
+   * Register the classes matching {@code importString}
+   * (see {@link Binder#scanImport(String)}).
+   *
+   * @param importString the import string
+   * @param metrics      the metrics to record the scan time to, or {@code null}
+   * @return true if the scan was successful, false if it was a failure
+   */
+  boolean scanImport(String importString, DispatchMetrics metrics) {
+    long start = (metrics == null) ? 0 : System.nanoTime();
+    try {
+      return wasImported(importString) || scanNewImport(importString);
+    } finally {
+      scanned(metrics, start);
+    }
+  }
+
+  private static void scanned(DispatchMetrics metrics, long start) {
+    if (metrics != null) {
+      metrics.scanned(System.nanoTime() - start);
+    }
+  }
+
+  private boolean scanNewImport(String importString) {
+    ScanImportEvent event = new ScanImportEvent();
+    event.begin();
+    List<ClassEntry> classes = findKnownClasses(importString);
+    if (classes == null) {
+      classes = recordScan(importString, scanClasses(importString, event));
+    }
+    boolean ret = registerImport(importString, classes);
+    if (event.shouldCommit()) {
+      event.importString = importString;
+      event.importCount = 1;
+      event.classesRegistered = importableCount(classes);
+      event.commit();
+    }
+    return ret;
+  }
+
+  private static int importableCount(List<ClassEntry> classes) {
+    return (int) classes.stream().filter(ClassEntry::isImportable).count();
+  }
+
+  /**
+   * Import several import strings at once (see {@link BinderInstance#scanImports(Collection)}).
+   * All import strings which can't be answered from the import index or shared index
+   * are resolved with a single, multi-threaded ClassGraph scan.
+   * The batch is recorded as one scan, in the metrics and as one JFR event.
+   *
+   * @param importStrings the import strings
+   * @param metrics       the metrics to record the scan time to, or {@code null}
+   * @return a map of each import string to {@code true} if its scan was successful,
+   *         or {@code false} if it was a failure (in {@code importStrings} order)
+   */
+  Map<String, Boolean> scanImports(Collection<String> importStrings, DispatchMetrics metrics) {
+    long start = (metrics == null) ? 0 : System.nanoTime();
+    try {
+      return scanNewImports(importStrings);
+    } finally {
+      scanned(metrics, start);
+    }
+  }
+
+  private Map<String, Boolean> scanNewImports(Collection<String> importStrings) {
+    ScanImportEvent event = new ScanImportEvent();
+    event.begin();
+    Map<String, List<ClassEntry>> found = new ConcurrentHashMap<>();
+    Set<String> toScan = new LinkedHashSet<>();
+    for (String importString : importStrings) {
+      if (!wasImported(importString) && !found.containsKey(importString)) {
+        List<ClassEntry> classes = findKnownClasses(importString);
+        if (classes != null) {
+          found.put(importString, classes);
+        } else {
+          toScan.add(importString);
+        }
+      }
+    }
+    if (!toScan.isEmpty()) {
+      PackageIndex scanned = PackageIndex.scan(toScan);
+      toScan.parallelStream().forEach(importString -> found.put(
+          importString, recordScan(importString, scanned.find(importString))));
+    }
+    // registered in order, so clashing simple names resolve as with repeated scanImport calls
+    Map<String, Boolean> ret = new LinkedHashMap<>();
+    for (String importString : importStrings) {
+      ret.put(importString, wasImported(importString)
+          || registerImport(importString, found.get(importString)));
+    }
+    if (event.shouldCommit()) {
+      event.importString = importStrings.stream().filter(found::containsKey).distinct()
+          .collect(Collectors.joining(","));
+      event.importCount = found.size();
+      event.classesRegistered = found.values().stream().mapToInt(ImportRegistry::importableCount).sum();
+      event.commit();
+    }
+    return ret;
+  }
+
+  private boolean registerImport(String importString, List<ClassEntry> classes) {
+    if (classes.isEmpty()) {
+      return false;
+    }
+    List<String> registered = new ArrayList<>();
+    for (ClassEntry ce : classes) {
+      // registers static or instant outer classes, but only static inner classes
+      if (ce.isImportable()) {
+        registerClass(ce.name, ce.simpleName);
+        registered.add(ce.name);
+      }
+    }
+    scanNames.put(importString, List.copyOf(registered));
+    return true;
+  }
+
+  // gets the classes matching importString from the import index or shared package index,
+  // or null if they can only be found by scanning
+  private List<ClassEntry> findKnownClasses(String importString) {
+    ImportIndex index = importIndex;
+    List<ClassEntry> ret = (index == null) ? null : index.get(importString);
+    if (ret == null && scanMode == ScanMode.SHARED_INDEX) {
+      ret = recordScan(importString, PackageIndex.shared().find(importString));
+    }
+    return ret;
+  }
+
+  // adds a scan result to the import index (if there is one)
+  private List<ClassEntry> recordScan(String importString, List<ClassEntry> classes) {
+    ImportIndex index = importIndex;
+    if (index != null && !classes.isEmpty()) {
+      index.put(importString, classes);
+    }
+    return classes;
+  }
+
+  private static List<ClassEntry> scanClasses(String importString, ScanImportEvent event) {
+    ScanResult res;
+    if (importString.endsWith("*")) {
+      res = new ClassGraph()
+          .enableSystemJarsAndModules()
+          .acceptPackagesNonRecursive(
+              importString.substring(0, importString.lastIndexOf('.')))
+          .scan();
+    } else {
+      res = new ClassGraph()
+          .enableSystemJarsAndModules()
+          .acceptPackagesNonRecursive(importString)
+          .scan();
+      res = resolveForInnerClasses(res, importString, event);
+    }
+    List<ClassEntry> ret = new ArrayList<>();
+    for (ClassInfo ci : res.getAllStandardClasses()) {
+      ret.add(ClassEntry.of(ci));
+    }
+    res.close();
+    return ret;
+  }
+
+  /**
+   * Return the class name of the imported class associated with {@code simpleClassName}.
+   *
+   * @param simpleClassName the simple class name
+   * @return the class name, or {@code null} if there isn't one
+   */
+  String getFullClassName(String simpleClassName) {
+    return simpleToFullNames.get(simpleClassName);
+  }
+
+  /**
+   * Register {@code clazz} by its simple name if it isn't registered yet,
+   * as happens when a class is called into without being imported.
+   *
+   * @param clazz the class
+   */
+  void registerIfNeeded(Class<?> clazz) {
+    String className = clazz.getName();
+    if (!registeredClasses.contains(className)) {
+      registerClass(className, clazz.getSimpleName());
+    }
+  }
+}
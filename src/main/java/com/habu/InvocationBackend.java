@@ -0,0 +1,32 @@
+package com.habu;
+
+/**
+ * The mechanism {@link Binder} uses to invoke resolved methods and constructors
+ * (see {@link Binder#setInvocationBackend(InvocationBackend)}).
+ */
+public enum InvocationBackend {
+  /**
+   * Call through {@link java.lang.reflect.Method#invoke(Object, Object...) Method.invoke}
+   * and {@link java.lang.reflect.Constructor#newInstance(Object...) Constructor.newInstance},
+   * converting arguments before every call. This is the default.
+   */
+  REFLECTION,
+  /**
+   * Call through a cached {@link java.lang.invoke.MethodHandle MethodHandle} per resolved
+   * overload, with the argument conversions built into the handle.
+   * Receivers and arguments are checked as by {@code Method.invoke} before calling,
+   * and exceptions thrown by the target (other than {@code Error}s) are wrapped in an
+   * {@link java.lang.reflect.InvocationTargetException InvocationTargetException}.
+   */
+  METHOD_HANDLE,
+  /**
+   * Call each resolved overload through {@link #REFLECTION} until it has been called
+   * {@link Binder#getCompileThreshold()} times, then through an invoker class
+   * generated with {@link java.lang.invoke.LambdaMetafactory LambdaMetafactory}
+   * which calls the target directly. Overloads which can't be compiled (e.g. those
+   * taking more than 3 values, counting the caller) fall back to {@link #METHOD_HANDLE}
+   * once hot. Once hot, calls are checked and exceptions wrapped as with
+   * {@link #METHOD_HANDLE}, so a bad call fails the same way before and after compiling.
+   */
+  TIERED
+}
@@ -0,0 +1,52 @@
+package com.habu;
+
+import java.lang.reflect.InvocationTargetException;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for a method / constructor call which failed, either because no overload
+ * matched or because the call threw.
+ */
+@Name("com.habu.InvocationFailure")
+@Label("Invocation Failure")
+@Category("JPI")
+@Description("A method or constructor call through a binder which threw an exception")
+final class InvocationFailureEvent extends Event {
+  @Label("Class")
+  String className;
+
+  @Label("Method")
+  String methodName;
+
+  @Label("Exception")
+  @Description("The exception thrown by the target, or by the binder if the target wasn't"
+      + " called")
+  String exceptionClass;
+
+  @Label("Message")
+  String message;
+
+  /**
+   * Commit a failure event if the event is enabled.
+   *
+   * @param clazz   the class called into (or {@code null} if unknown)
+   * @param name    the method name (the class name for constructors)
+   * @param failure the thrown exception
+   */
+  static void emit(Class<?> clazz, String name, Throwable failure) {
+    InvocationFailureEvent event = new InvocationFailureEvent();
+    if (event.shouldCommit()) {
+      Throwable cause = (failure instanceof InvocationTargetException
+          && failure.getCause() != null) ? failure.getCause() : failure;
+      event.className = (clazz == null) ? null : clazz.getName();
+      event.methodName = name;
+      event.exceptionClass = cause.getClass().getName();
+      event.message = cause.getMessage();
+      event.commit();
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.habu;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent latency histogram with power-of-two nanosecond buckets:
+ * bucket {@code i} counts durations in {@code [2^i, 2^(i+1))} nanoseconds
+ * (bucket 0 also counts durations under 1ns). Recording only adds to striped counters.
+ */
+final class LatencyHistogram {
+  static final int BUCKETS = 40; // the last bucket takes everything from ~9 minutes up
+
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+  private final LongAdder totalNanos = new LongAdder();
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Record one duration.
+   *
+   * @param nanos the duration in nanoseconds
+   */
+  void record(long nanos) {
+    int bucket = 63 - Long.numberOfLeadingZeros(Math.max(nanos, 1));
+    buckets[Math.min(bucket, BUCKETS - 1)].increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+  }
+
+  /**
+   * Returns the recorded durations so far.
+   *
+   * @return a snapshot of this histogram
+   */
+  BinderMetrics.Latency snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return new BinderMetrics.Latency(counts, totalNanos.sum(), maxNanos.get());
+  }
+
+  /**
+   * Forget all recorded durations.
+   */
+  void reset() {
+    for (LongAdder bucket : buckets) {
+      bucket.reset();
+    }
+    totalNanos.reset();
+    maxNanos.reset();
+  }
+}
@@ -0,0 +1,192 @@
+package com.habu;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The names {@link BinderInstance#call(Object, String, Object[])} routes to constructors
+ * (the class's simple name, and those of its declared inner classes) and the public fields
+ * of one class, so that calls decide between a constructor, an inner class constructor and
+ * a method with one map lookup (instead of comparing {@link Class#getSimpleName()} and
+ * scanning {@link Class#getDeclaredClasses()}, which copies the array of classes each time),
+ * and field reads and writes skip {@link Class#getField(String)}.
+ * Each field gets a cached accessor the first time it is used: enum constants are read
+ * once and kept as values, other fields are read and written through method handles.
+ * Other {@code static final} fields aren't kept, as some are replaced at run time
+ * (e.g. {@code System.out} by {@link System#setOut}), or read while their class
+ * is being initialized.
+ */
+final class MemberTable {
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+  private static final Accessor MISSING = new Accessor(null, null, null, null);
+
+  private final Class<?> clazz;
+  private final Map<String, Class<?>> constructed; // simple name -> class or inner class
+  private final ConcurrentHashMap<String, Accessor> fields = new ConcurrentHashMap<>();
+
+  /**
+   * Create the table of {@code clazz}, indexing its simple name and declared inner classes.
+   *
+   * @param clazz the class
+   */
+  MemberTable(Class<?> clazz) {
+    this.clazz = clazz;
+    Map<String, Class<?>> names = new HashMap<>();
+    for (Class<?> innerClazz : clazz.getDeclaredClasses()) {
+      names.putIfAbsent(innerClazz.getSimpleName(), innerClazz);
+    }
+    names.put(clazz.getSimpleName(), clazz); // the class's own name takes precedence
+    constructed = Map.copyOf(names);
+  }
+
+  /**
+   * A cached field accessor.
+   */
+  static final class Accessor {
+    final Field field;
+    final Object constant; // the value of an enum constant
+    private final MethodHandle getter; // (Object)Object, null for constants
+    private final MethodHandle setter; // (Object, Object)void, null for final fields
+
+    Accessor(Field field, Object constant, MethodHandle getter, MethodHandle setter) {
+      this.field = field;
+      this.constant = constant;
+      this.getter = getter;
+      this.setter = setter;
+    }
+
+    /**
+     * Read the field of {@code o}.
+     *
+     * @param o the object (ignored for static fields)
+     * @return the field value
+     */
+    Object get(Object o) {
+      if (getter == null) {
+        return constant;
+      }
+      try {
+        return (Object) getter.invokeExact(o);
+      } catch (RuntimeException | Error ex) {
+        throw ex;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t); // field getters don't throw checked exceptions
+      }
+    }
+
+    /**
+     * Write the field of {@code o}, converting numbers and 1-length Strings
+     * to the field type as when calling methods (see {@link Binder}).
+     *
+     * @param o     the object (ignored for static fields)
+     * @param value the value to write
+     * @throws IllegalAccessException   if the field is final
+     * @throws IllegalArgumentException if {@code o} doesn't have the field, or
+     *                                  {@code value} can't be assigned to it
+     */
+    void set(Object o, Object value) throws IllegalAccessException {
+      if (setter == null) {
+        throw new IllegalAccessException("Cannot set final field " + field);
+      }
+      try {
+        setter.invokeExact(o, fit(value));
+      } catch (ClassCastException | NullPointerException ex) {
+        throw new IllegalArgumentException("Cannot set " + field + " to " + value, ex);
+      } catch (RuntimeException | Error ex) {
+        throw ex;
+      } catch (Throwable t) {
+        throw new IllegalStateException(t); // field setters don't throw checked exceptions
+      }
+    }
+
+    private Object fit(Object value) {
+      NumRank fieldRank = NumRank.rank(field.getType());
+      if (value instanceof String && fieldRank == NumRank.CHAR
+          && ((String) value).length() == 1) {
+        return ((String) value).charAt(0);
+      } else if (value instanceof Number && fieldRank != NumRank.NAN) {
+        return fieldRank.fit((Number) value);
+      }
+      return value;
+    }
+  }
+
+  /**
+   * Returns the class a call to {@code name} constructs: this table's class for its
+   * simple name, or the declared inner class named {@code name}.
+   *
+   * @param name the function name
+   * @return the class to construct, or {@code null} if {@code name} is a method name
+   */
+  Class<?> constructedBy(String name) {
+    return constructed.get(name);
+  }
+
+  /**
+   * Returns the declared inner class named {@code simpleName}.
+   *
+   * @param simpleName the simple name of the inner class
+   * @return the inner class, or {@code null} if there isn't one
+   */
+  Class<?> innerClass(String simpleName) {
+    Class<?> ret = constructed.get(simpleName);
+    return (ret == clazz) ? null : ret;
+  }
+
+  /**
+   * Returns the accessor of the public field {@code name} (as found by
+   * {@link Class#getField(String)}), creating it on first use.
+   *
+   * @param name the field name
+   * @return the field accessor, or {@code null} if there is no such field
+   * @throws IllegalAccessException if the field is inaccessible
+   */
+  Accessor field(String name) throws IllegalAccessException {
+    Accessor ret = fields.get(name);
+    if (ret == null) {
+      ret = load(name);
+      fields.putIfAbsent(name, ret);
+    }
+    return (ret == MISSING) ? null : ret;
+  }
+
+  private Accessor load(String name) throws IllegalAccessException {
+    Field field;
+    try {
+      field = clazz.getField(name);
+    } catch (NoSuchFieldException ex) {
+      return MISSING;
+    }
+    if (field.isEnumConstant()) {
+      return new Accessor(field, field.get(null), null, null);
+    }
+    int modifiers = field.getModifiers();
+    MethodHandle getter = LOOKUP.unreflectGetter(field);
+    MethodHandle setter = Modifier.isFinal(modifiers) ? null : LOOKUP.unreflectSetter(field);
+    if (Modifier.isStatic(modifiers)) {
+      getter = MethodHandles.dropArguments(getter, 0, Object.class);
+      setter = (setter == null) ? null : MethodHandles.dropArguments(setter, 0, Object.class);
+    }
+    return new Accessor(field, null, getter.asType(GETTER_TYPE),
+        (setter == null) ? null : setter.asType(SETTER_TYPE));
+  }
+
+  /**
+   * Returns the approximate number of bytes retained by this table when created
+   * (field accessors are created, and not counted, later).
+   *
+   * @return the approximate retained size
+   */
+  long estimateBytes() {
+    return 64 + 48L * constructed.size();
+  }
+}
@@ -0,0 +1,98 @@
+package com.habu;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds the method table of a class: each public method (including inherited ones)
+ * once per signature, where overridden, re-declared and bridge methods collapse into
+ * the most specific implementation.
+ */
+final class MethodTable {
+
+  private MethodTable() {
+  }
+
+  /**
+   * Load the (methodName, Overloads) table of {@code clazz}.
+   *
+   * @param clazz the class
+   * @return the deduplicated public methods of {@code clazz} by name
+   */
+  static Map<String, List<Overload>> load(Class<?> clazz) {
+    // getMethods() already includes inherited public methods
+    Map<String, Method> bySignature = new LinkedHashMap<>();
+    for (Method m : clazz.getMethods()) {
+      bySignature.merge(signatureOf(m), m, MethodTable::moreSpecific);
+    }
+    Map<String, List<Method>> byName = new LinkedHashMap<>();
+    for (Method m : bySignature.values()) {
+      byName.computeIfAbsent(m.getName(), k -> new ArrayList<>(1)).add(m);
+    }
+    HashMap<String, List<Overload>> ret = new HashMap<>();
+    for (Map.Entry<String, List<Method>> e : byName.entrySet()) {
+      List<Method> methods = e.getValue();
+      List<Overload> overloads = new ArrayList<>(methods.size());
+      for (Method m : methods) {
+        if (!isShadowedBridge(m, methods)) {
+          overloads.add(Overload.of(m));
+        }
+      }
+      ret.put(e.getKey(), overloads);
+    }
+    return ret;
+  }
+
+  private static String signatureOf(Method m) {
+    StringBuilder sb = new StringBuilder(m.getName()).append('(');
+    for (Class<?> paramClass : m.getParameterTypes()) {
+      sb.append(paramClass.getName()).append(',');
+    }
+    return sb.toString();
+  }
+
+  // picks between two methods with the same signature
+  private static Method moreSpecific(Method a, Method b) {
+    if (a.isBridge() != b.isBridge()) {
+      return a.isBridge() ? b : a;
+    } else if (isAbstract(a) != isAbstract(b)) {
+      return isAbstract(a) ? b : a;
+    } else if (a.getReturnType() != b.getReturnType()) { // covariant return
+      return a.getReturnType().isAssignableFrom(b.getReturnType()) ? b : a;
+    }
+    return a.getDeclaringClass().isAssignableFrom(b.getDeclaringClass()) ? b : a;
+  }
+
+  private static boolean isAbstract(Method m) {
+    return Modifier.isAbstract(m.getModifiers());
+  }
+
+  // true for a (generic) bridge whose target overload is also in sameName
+  private static boolean isShadowedBridge(Method bridge, List<Method> sameName) {
+    if (!bridge.isBridge()) {
+      return false;
+    }
+    Class<?>[] bridgeParams = bridge.getParameterTypes();
+    for (Method m : sameName) {
+      if (!m.isBridge() && m.getParameterCount() == bridgeParams.length
+          && paramsAssignable(bridgeParams, m.getParameterTypes())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static boolean paramsAssignable(Class<?>[] to, Class<?>[] from) {
+    for (int i = 0; i < to.length; i++) {
+      if (!to[i].isAssignableFrom(from[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
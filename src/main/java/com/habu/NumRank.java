@@ -29,6 +29,25 @@ enum NumRank {
   static final BigDecimal DOUBLEMAX = new BigDecimal(Double.MAX_VALUE);
   static final BigDecimal DOUBLENEGMAX = new BigDecimal(-Double.MAX_VALUE);
 
+  private static final ClassValue<NumRank> RANKS = new ClassValue<>() {
+    @Override
+    protected NumRank computeValue(Class<?> clazz) {
+      return (clazz.isPrimitive()) ? primitiveRank(clazz) : wrapperRank(clazz);
+    }
+  };
+
+  // [paramPrimitive ? 1 : 0][argRank][paramRank] -> the score of scoreMatch()
+  private static final int[][][] SCORES = new int[2][values().length][values().length];
+
+  static {
+    for (NumRank argRank : values()) {
+      for (NumRank paramRank : values()) {
+        SCORES[0][argRank.ordinal()][paramRank.ordinal()] = score(argRank, paramRank, false);
+        SCORES[1][argRank.ordinal()][paramRank.ordinal()] = score(argRank, paramRank, true);
+      }
+    }
+  }
+
   private static NumRank primitiveRank(Class<?> argClass) {
     if (argClass.equals(byte.class)) {
       return BYTE;
@@ -73,18 +92,6 @@ enum NumRank {
     return bd.stripTrailingZeros().scale() <= 0;
   }
 
-  static boolean inByteRange(BigDecimal bd) {
-    return bd.compareTo(BYTEMAX) <= 0 && bd.compareTo(BYTEMIN) >= 0;
-  }
-
-  static boolean inShortRange(BigDecimal bd) {
-    return bd.compareTo(SHORTMAX) <= 0 && bd.compareTo(SHORTMIN) >= 0;
-  }
-
-  static boolean inIntRange(BigDecimal bd) {
-    return bd.compareTo(INTMAX) <= 0 && bd.compareTo(INTMIN) >= 0;
-  }
-
   static boolean inLongRange(BigDecimal bd) {
     return bd.compareTo(LONGMAX) <= 0 && bd.compareTo(LONGMIN) >= 0;
   }
@@ -105,44 +112,117 @@ enum NumRank {
    * @return the numerical type of {@code clazz} as a NumRank constant.
    */
   static NumRank rank(Class<?> clazz) {
-    return (clazz.isPrimitive()) ? primitiveRank(clazz) : wrapperRank(clazz);
+    return RANKS.get(clazz);
   }
 
   /**
    * Return the NumRank constant corresponding to the accepted number range in which the 
    * value of the BigDecimal falls, or NAN if none match.
+   * Common values are classified from their scale and precision without allocating.
    *
    * @param bd the BigDecimal object
    * @return the numerical type as a NumRank constant
    */
-  private static NumRank rank(BigDecimal bd) {
-    if (isWhole(bd)) {
-      if (inByteRange(bd)) {
-        return BYTE;
-      } else if (inShortRange(bd)) {
-        return SHORT;
-      } else if (inIntRange(bd)) {
-        return INT;
-      } else if (inLongRange(bd)) {
+  static NumRank rank(BigDecimal bd) {
+    int scale = bd.scale();
+    int precision = bd.precision();
+    int intDigits = precision - scale; // digits before the decimal point
+    if (bd.signum() == 0) {
+      return BYTE;
+    } else if (scale <= 0) { // whole
+      if (intDigits <= 18) {
+        return wholeRank(bd.longValue());
+      } else if (intDigits == 19 && inLongRange(bd)) {
         return LONG;
       }
+    } else if (intDigits > 0 && precision <= 15) {
+      // with 15 digits or less the double is exact if whole, and can't round to a
+      // whole number if not
+      double d = bd.doubleValue();
+      if (d == Math.rint(d)) {
+        return wholeRank((long) d);
+      }
+    } else if (intDigits > 0 && intDigits <= 19 && isWhole(bd) && inLongRange(bd)) {
+      return wholeRank(bd.longValue());
     }
-    if (inFloatRange(bd)) {
-      return FLOAT;
-    } else if (inDoubleRange(bd)) {
+    return fractionalRank(bd, intDigits);
+  }
+
+  private static NumRank wholeRank(long value) {
+    if (value == (byte) value) {
+      return BYTE;
+    } else if (value == (short) value) {
+      return SHORT;
+    } else if (value == (int) value) {
+      return INT;
+    } else {
+      return LONG;
+    }
+  }
+
+  // for numbers which aren't whole numbers in long range
+  private static NumRank fractionalRank(BigDecimal bd, int intDigits) {
+    if (intDigits <= 38 || intDigits == 39 && inFloatRange(bd)) {
+      return FLOAT; // Float.MAX_VALUE has 39 digits before the decimal point
+    } else if (intDigits <= 308 || intDigits == 309 && inDoubleRange(bd)) {
       return DOUBLE;
     } else {
       return NAN; 
     } // error
   }
 
-  // coupled w JPI
-  static int scoreMatch(Object argObj, Class<?> argClass, Class<?> paramClass) {
-    NumRank argRank;
-    NumRank paramRank = rank(paramClass);
-    boolean bigDecPassed = BigDecimal.class.isAssignableFrom(argClass)
-                        && Binder.isRecastingBigDecimals();
-    argRank = bigDecPassed ? rank((BigDecimal) argObj) : rank(argClass);
+  /**
+   * Return the NumRank of an argument: the rank of its value if it is a
+   * {@code BigDecimal} being recast (see {@link Binder#setRecastBigDecimals(boolean)}),
+   * otherwise the rank of its class.
+   *
+   * @param arg the argument (may be {@code null}, which is NAN)
+   * @return the numerical type of {@code arg} as a NumRank constant
+   */
+  static NumRank rankOf(Object arg) {
+    if (arg == null) {
+      return NAN;
+    } else if (arg instanceof BigDecimal && Binder.isRecastingBigDecimals()) {
+      return rank((BigDecimal) arg);
+    }
+    return rank(arg.getClass());
+  }
+
+  /**
+   * Typecast {@code numArg} to the boxed numeric type this rank represents
+   * (e.g. {@code INT} yields an {@code Integer}). {@code NAN} returns {@code numArg} as is.
+   *
+   * @param numArg the number to cast
+   * @return the cast number
+   */
+  Object fit(Number numArg) {
+    switch (this) {
+      case BYTE:
+        return numArg.byteValue();
+      case SHORT:
+        return numArg.shortValue();
+      case CHAR:
+        return (char) numArg.intValue();
+      case INT:
+        return numArg.intValue();
+      case LONG:
+        return numArg.longValue();
+      case FLOAT:
+        return numArg.floatValue();
+      case DOUBLE:
+        return numArg.doubleValue();
+      default:
+        return numArg;
+    }
+  }
+
+  // coupled w JPI; the score of an argument and parameter already ranked
+  static int scoreMatch(NumRank argRank, NumRank paramRank, boolean paramPrimitive) {
+    return SCORES[paramPrimitive ? 1 : 0][argRank.ordinal()][paramRank.ordinal()];
+  }
+
+  // the score of passing an argRank number to a paramRank parameter
+  private static int score(NumRank argRank, NumRank paramRank, boolean paramPrimitive) {
     if (argRank == NAN) {
       return 0; 
     }
@@ -151,10 +231,10 @@ enum NumRank {
     } else if (paramRank.compareTo(argRank) > 0) {
       if (paramRank != CHAR) {
         return 3; // 3 points for widening conversions
-      } else if (paramClass.isPrimitive()) {
+      } else if (paramPrimitive) {
         return 2; // 2 points for whole number to char implicit conversions
       }
-    } else if (paramRank == CHAR && paramClass.isPrimitive()
+    } else if (paramRank == CHAR && paramPrimitive
             && argRank.compareTo(INT) <= 0) {
       return 2; // 2 points for integer to char implicit conversions
     }
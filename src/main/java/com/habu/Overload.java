@@ -0,0 +1,108 @@
+package com.habu;
+
+import java.lang.reflect.Executable;
+
+/**
+ * A method / constructor overload along with the parameter data overload scoring reads,
+ * computed once when the executables of a class are stored (so that resolving doesn't
+ * call {@link Executable#getParameterTypes()}, which copies the parameter array each time).
+ */
+final class Overload {
+  static final int PRIMITIVE = 1;
+  static final int OBJECT = 2; // exactly Object
+  static final int OBJECT_ARRAY = 4; // exactly Object[]
+  static final int CHAR = 8; // char or Character
+
+  final Executable executable;
+  final int arity;
+  final Class<?>[] paramClasses;
+  final NumRank[] paramRanks;
+  final int[] paramFlags;
+  // the element type of a varargs overload's array parameter (null if not varargs)
+  final Class<?> componentClass;
+  final NumRank componentRank;
+  final int componentFlags;
+
+  private Overload(Executable executable) {
+    this.executable = executable;
+    paramClasses = executable.getParameterTypes();
+    arity = paramClasses.length;
+    paramRanks = new NumRank[arity];
+    paramFlags = new int[arity];
+    for (int i = 0; i < arity; i++) {
+      paramRanks[i] = NumRank.rank(paramClasses[i]);
+      paramFlags[i] = flagsOf(paramClasses[i], paramRanks[i]);
+    }
+    componentClass = executable.isVarArgs() ? paramClasses[arity - 1].getComponentType() : null;
+    componentRank = (componentClass == null) ? NumRank.NAN : NumRank.rank(componentClass);
+    componentFlags = (componentClass == null) ? 0 : flagsOf(componentClass, componentRank);
+  }
+
+  private static int flagsOf(Class<?> paramClass, NumRank paramRank) {
+    return (paramClass.isPrimitive() ? PRIMITIVE : 0)
+        | (paramClass == Object.class ? OBJECT : 0)
+        | (paramClass == Object[].class ? OBJECT_ARRAY : 0)
+        | (paramRank == NumRank.CHAR ? CHAR : 0);
+  }
+
+  /**
+   * Create the descriptor of {@code executable}.
+   *
+   * @param executable the method or constructor
+   * @return the overload descriptor
+   */
+  static Overload of(Executable executable) {
+    return new Overload(executable);
+  }
+
+  /**
+   * Returns the approximate number of bytes retained by this descriptor
+   * and its executable.
+   *
+   * @return the approximate retained size
+   */
+  long estimateBytes() {
+    return 216 + 24L * arity; // executable, descriptor and per-parameter arrays
+  }
+
+  /**
+   * Returns {@code true} if this is a varargs overload.
+   *
+   * @return whether the last parameter is a varargs array
+   */
+  boolean isVarArgs() {
+    return componentClass != null;
+  }
+
+  /**
+   * Returns the class of the parameter argument {@code i} is passed to when this
+   * overload is called with variable arity (i.e. with trailing arguments packed
+   * into the varargs array).
+   *
+   * @param i the argument index
+   * @return the parameter class, or the varargs component class for trailing arguments
+   */
+  Class<?> varargParamClass(int i) {
+    return (i < arity - 1) ? paramClasses[i] : componentClass;
+  }
+
+  /**
+   * Returns the {@link NumRank} of {@link #varargParamClass(int)}.
+   *
+   * @param i the argument index
+   * @return the parameter rank
+   */
+  NumRank varargParamRank(int i) {
+    return (i < arity - 1) ? paramRanks[i] : componentRank;
+  }
+
+  /**
+   * Returns the flags of {@link #varargParamClass(int)}.
+   *
+   * @param i the argument index
+   * @return the parameter flags
+   */
+  int varargParamFlags(int i) {
+    return (i < arity - 1) ? paramFlags[i] : componentFlags;
+  }
+}
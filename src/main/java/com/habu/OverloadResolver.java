@@ -0,0 +1,177 @@
+package com.habu;
+
+import java.util.List;
+
+/**
+ * Scores method / constructor overloads against passed arguments
+ * and picks the best matching one (see {@link Binder} for the matching rules).
+ */
+final class OverloadResolver {
+
+  private OverloadResolver() {
+  }
+
+  /**
+   * Calls {@link #scoreMatch(Overload, Object[], NumRank[])} to get the best matching
+   * overload based on {@code passedArgs}. As in Java, overloads are first matched
+   * by their declared arity (only overloads taking as many parameters as there are
+   * arguments are scored); only if none match are varargs overloads matched with
+   * variable arity, i.e. with trailing arguments scored against the varargs element type
+   * (see {@link #isVarArgsCall(Overload, Object[])}). Each argument is ranked
+   * (see {@link NumRank#rankOf(Object)}) once rather than once per overload.
+   *
+   * @param options    the overloads to choose from (may be {@code null})
+   * @param passedArgs the arguments to try against overload parameters
+   * @return the best match, or {@code null} if no good match was found
+   */
+  static Overload getBestMatch(Overloads options, Object[] passedArgs) {
+    if (options == null) {
+      return null;
+    }
+    Overload[] candidates = options.withArity(passedArgs.length);
+    if (candidates.length == 0 && options.varargs().length == 0) {
+      return null;
+    }
+    NumRank[] argRanks = new NumRank[passedArgs.length];
+    for (int i = 0; i < passedArgs.length; i++) {
+      argRanks[i] = NumRank.rankOf(passedArgs[i]);
+    }
+    Overload bestMatch = null;
+    int highScore = 0;
+    for (Overload e : candidates) {
+      int newScore = scoreMatch(e, passedArgs, argRanks);
+      if (newScore > highScore) {
+        highScore = newScore;
+        bestMatch = e;
+      }
+    }
+    if (bestMatch != null) {
+      return bestMatch;
+    }
+    for (Overload e : options.varargs()) {
+      int newScore = scoreVarArgsMatch(e, passedArgs, argRanks);
+      if (newScore > highScore) {
+        highScore = newScore;
+        bestMatch = e;
+      }
+    }
+    return bestMatch;
+  }
+
+  /**
+   * Returns {@code true} if {@code overload}, as returned by
+   * {@link #getBestMatch(Overloads, Object[])} for {@code passedArgs}, was matched with
+   * variable arity, so trailing arguments need packing into its varargs array.
+   *
+   * @param overload   the matched overload
+   * @param passedArgs the arguments it was matched for
+   * @return whether {@code overload} is to be called with variable arity
+   */
+  static boolean isVarArgsCall(Overload overload, Object[] passedArgs) {
+    if (!overload.isVarArgs()) {
+      return false;
+    } else if (passedArgs.length != overload.arity) {
+      return true;
+    }
+    // with as many arguments as parameters, the overload was matched by declared arity
+    // unless the last argument can't be passed as the varargs array itself
+    int last = overload.arity - 1;
+    return scoreArg(passedArgs[last], NumRank.rankOf(passedArgs[last]),
+        overload.paramClasses[last], overload.paramRanks[last], overload.paramFlags[last]) < 0;
+  }
+
+  private static boolean has(int paramFlags, int flag) {
+    return (paramFlags & flag) != 0;
+  }
+
+  // 0 == err otherwase score is the return value - 1
+  private static int scoreForObjectsAndNulls(Object arg, int paramFlags) {
+    if (arg == null) {
+      if (has(paramFlags, Overload.PRIMITIVE)) {
+        return 0;
+      } else if (has(paramFlags, Overload.OBJECT)) {
+        return 3;
+      } else {
+        return 2;
+      }
+    }
+    if (has(paramFlags, Overload.OBJECT)) {
+      return 2;
+    } else {
+      return 1;
+    }
+  }
+
+  // score == abs (1) == return this score , 0 = continue;
+  private static int argBasicCheck(Overload c, Object[] passedArgs) {
+    if (c.arity != passedArgs.length) {
+      return -1;
+    } else if (c.arity == 0) {
+      return 1;
+    } else {
+      return 0;
+    }
+  }
+
+  // assigns a score on how close arguments for a method matches
+  // each particular overload
+  private static int scoreMatch(Overload c, Object[] passedArgs, NumRank[] argRanks) {
+    int ret = argBasicCheck(c, passedArgs);
+    if (Math.abs(ret) == 1) {
+      return ret; // 1 pt: no args and no params | -1 pt: bad match (arg and param count mismatch)
+    }
+    for (int i = 0; i < passedArgs.length; i++) {
+      int argScore = scoreArg(passedArgs[i], argRanks[i],
+          c.paramClasses[i], c.paramRanks[i], c.paramFlags[i]);
+      if (argScore < 0) {
+        return -1; // bad match
+      }
+      ret += argScore;
+    }
+    return ret;
+  }
+
+  // as above, for calling a varargs overload with variable arity
+  private static int scoreVarArgsMatch(Overload c, Object[] passedArgs, NumRank[] argRanks) {
+    if (passedArgs.length < c.arity - 1) {
+      return -1; // too few args for the fixed params
+    }
+    int ret = 1; // 1 pt: so that packing no args at all still matches
+    for (int i = 0; i < passedArgs.length; i++) {
+      int argScore = scoreArg(passedArgs[i], argRanks[i],
+          c.varargParamClass(i), c.varargParamRank(i), c.varargParamFlags(i));
+      if (argScore < 0) {
+        return -1; // bad match
+      }
+      ret += argScore;
+    }
+    return ret;
+  }
+
+  // the score of passing one argument to a parameter, -1 if it can't be passed
+  private static int scoreArg(Object currentArg, NumRank argRank,
+      Class<?> paramClass, NumRank paramRank, int paramFlags) {
+    int nullAndObjectScore = scoreForObjectsAndNulls(currentArg, paramFlags);
+    if (nullAndObjectScore == 0) {
+      return -1; // bad match
+    } else if (nullAndObjectScore > 1) {
+      return nullAndObjectScore - 1; // 1 pt: null arg, | 2 pts: null arg to Object param
+    }
+    Class<?> argClass = currentArg.getClass();
+    if (argClass.equals(paramClass)) {
+      return 6; // 6 pts: same class
+    } else if (paramClass.isAssignableFrom(argClass)) {
+      return 5; // subclass
+    } else if (has(paramFlags, Overload.OBJECT_ARRAY) && currentArg instanceof List) {
+      return 4; // converting list to arr
+    }
+    // a 1-length String will be treated as a char if necessary (NOT a character)
+    if (argClass == String.class && has(paramFlags, Overload.CHAR)
+        && ((String) currentArg).length() == 1) {
+      argRank = NumRank.CHAR;
+    }
+    int numRankScore = NumRank.scoreMatch(
+        argRank, paramRank, has(paramFlags, Overload.PRIMITIVE));
+    return (numRankScore == 0) ? -1 : numRankScore; // see NumRank.scoreMatch()
+  }
+}
@@ -0,0 +1,87 @@
+package com.habu;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The overloads of one method / constructor name, indexed by arity so that resolving
+ * only scores overloads which take as many arguments as were passed.
+ * Varargs overloads are also kept in a separate bucket, for matching with variable
+ * arity when no overload matches by declared arity
+ * (see {@link OverloadResolver#getBestMatch(Overloads, Object[])}).
+ */
+final class Overloads {
+  private static final Overload[] NONE = new Overload[0];
+
+  private final Overload[][] byArity;
+  private final Overload[] varargs;
+
+  private Overloads(Overload[][] byArity, Overload[] varargs) {
+    this.byArity = byArity;
+    this.varargs = varargs;
+  }
+
+  /**
+   * Index {@code overloads} by arity.
+   *
+   * @param overloads the overloads of a name
+   * @return the indexed overloads
+   */
+  static Overloads of(List<Overload> overloads) {
+    int maxArity = -1;
+    for (Overload o : overloads) {
+      maxArity = Math.max(maxArity, o.arity);
+    }
+    List<List<Overload>> buckets = new ArrayList<>(maxArity + 1);
+    for (int i = 0; i <= maxArity; i++) {
+      buckets.add(new ArrayList<>());
+    }
+    List<Overload> varargs = new ArrayList<>();
+    for (Overload o : overloads) {
+      buckets.get(o.arity).add(o);
+      if (o.executable.isVarArgs()) {
+        varargs.add(o);
+      }
+    }
+    Overload[][] byArity = new Overload[maxArity + 1][];
+    for (int i = 0; i <= maxArity; i++) {
+      byArity[i] = buckets.get(i).toArray(NONE);
+    }
+    return new Overloads(byArity, varargs.toArray(NONE));
+  }
+
+  /**
+   * Returns the overloads taking exactly {@code arity} parameters.
+   *
+   * @param arity the number of arguments passed
+   * @return the overloads with that arity (possibly none)
+   */
+  Overload[] withArity(int arity) {
+    return (arity < byArity.length) ? byArity[arity] : NONE;
+  }
+
+  /**
+   * Returns the approximate number of bytes retained by these overloads
+   * (including their executables).
+   *
+   * @return the approximate retained size
+   */
+  long estimateBytes() {
+    long ret = 32 + 16L * byArity.length;
+    for (Overload[] bucket : byArity) {
+      for (Overload o : bucket) {
+        ret += o.estimateBytes();
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Returns the varargs overloads.
+   *
+   * @return the varargs overloads (possibly none)
+   */
+  Overload[] varargs() {
+    return varargs;
+  }
+}
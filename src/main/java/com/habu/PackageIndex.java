@@ -0,0 +1,144 @@
+package com.habu;
+
+import io.github.classgraph.ClassGraph;
+import io.github.classgraph.ClassInfo;
+import io.github.classgraph.ScanResult;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory (package, classes) index built from a single ClassGraph scan,
+ * which import strings can be resolved against the same way
+ * {@link BinderInstance#scanImport(String)} resolves them by scanning.
+ * The shared index covers the whole classpath and system modules; batch indexes
+ * cover just the packages / classes a set of import strings may match.
+ */
+final class PackageIndex {
+  private final Map<String, List<ClassEntry>> packages = new HashMap<>();
+  private final Map<String, ClassEntry> classes = new HashMap<>();
+
+  private static final Lazy SHARED =
+      new Lazy(() -> new ClassGraph().enableSystemJarsAndModules().scan());
+
+  /**
+   * An index built by the first {@link #get()} which succeeds. A failed scan isn't
+   * cached (as it would be by a static initializer, which fails every later use with
+   * a {@code NoClassDefFoundError}): its exception is thrown and the next call scans again.
+   */
+  static final class Lazy {
+    private final Supplier<ScanResult> scan;
+    private volatile PackageIndex index;
+
+    /**
+     * Create an index built from the result of {@code scan} on first use.
+     *
+     * @param scan the scan to build the index from
+     */
+    Lazy(Supplier<ScanResult> scan) {
+      this.scan = scan;
+    }
+
+    /**
+     * Returns the index, scanning to build it if it isn't built yet.
+     *
+     * @return the index
+     */
+    PackageIndex get() {
+      PackageIndex ret = index;
+      if (ret == null) {
+        synchronized (this) {
+          ret = index;
+          if (ret == null) {
+            ret = new PackageIndex(scan.get());
+            index = ret;
+          }
+        }
+      }
+      return ret;
+    }
+  }
+
+  private PackageIndex(ScanResult res) {
+    try (res) {
+      for (ClassInfo ci : res.getAllStandardClasses()) {
+        ClassEntry ce = ClassEntry.of(ci);
+        packages.computeIfAbsent(ci.getPackageName(), k -> new ArrayList<>()).add(ce);
+        classes.put(ce.name, ce);
+      }
+    }
+  }
+
+  /**
+   * Returns the index shared by all binders, scanning the classpath to build it if needed
+   * (see {@link Lazy}).
+   *
+   * @return the shared package index
+   */
+  static PackageIndex shared() {
+    return SHARED.get();
+  }
+
+  /**
+   * Build an index of everything any of {@code importStrings} may match,
+   * with one ClassGraph scan (on as many threads as ClassGraph scans with by default).
+   *
+   * @param importStrings the import strings
+   * @return the package index
+   */
+  static PackageIndex scan(Collection<String> importStrings) {
+    ClassGraph classGraph = new ClassGraph().enableSystemJarsAndModules();
+    for (String importString : importStrings) {
+      if (importString.endsWith("*")) {
+        classGraph.acceptPackagesNonRecursive(
+            importString.substring(0, importString.lastIndexOf('.')));
+      } else {
+        classGraph.acceptPackagesNonRecursive(importString);
+        classGraph.acceptClasses(classNameCandidates(importString).toArray(new String[0]));
+      }
+    }
+    return new PackageIndex(classGraph.scan());
+  }
+
+  // the class names importString may refer to, trying inner classes
+  // by replacing '.' with '$' from the right
+  private static List<String> classNameCandidates(String importString) {
+    List<String> ret = new ArrayList<>();
+    String className = importString;
+    for (int dot = className.lastIndexOf('.'); dot >= 0; dot = className.lastIndexOf('.')) {
+      ret.add(className);
+      className = className.substring(0, dot) + '$' + className.substring(dot + 1);
+    }
+    return ret;
+  }
+
+  /**
+   * Returns the classes matching {@code importString}: the classes of a package for
+   * wildcard or package imports, otherwise the class named by {@code importString}, trying
+   * inner class names ('.' replaced with '$' from the right) if necessary.
+   *
+   * @param importString the import string
+   * @return the matching classes (empty if there are none)
+   */
+  List<ClassEntry> find(String importString) {
+    if (importString.endsWith("*")) {
+      return packages.getOrDefault(
+          importString.substring(0, importString.lastIndexOf('.')), Collections.emptyList());
+    }
+    List<ClassEntry> ret = packages.get(importString);
+    if (ret != null) {
+      return ret;
+    }
+    for (String className : classNameCandidates(importString)) {
+      ClassEntry ce = classes.get(className);
+      if (ce != null) {
+        return Collections.singletonList(ce);
+      }
+    }
+    return Collections.emptyList();
+  }
+}
@@ -0,0 +1,140 @@
+package com.habu;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches resolved {@link CallPlan}s by (class, executableName, argument shape),
+ * so repeat calls with the same kinds of arguments skip overload scoring.
+ * Lookups do not lock; the plans of a name are replaced (copy on write) when one is added.
+ * A name keeps at most {@link #MAX_PLANS_PER_NAME} plans (the most recently added ones),
+ * as lookups scan them: a name called with many argument shapes resolves the rarer ones
+ * again instead of slowing down every call.
+ * Classes are held as in a {@link ClassCache}, so their plans may be evicted.
+ */
+final class ResolutionCache {
+  static final int MAX_PLANS_PER_NAME = 16;
+
+  private static final CallPlan[] NO_PLANS = new CallPlan[0];
+
+  private final ClassCache<ConcurrentHashMap<String, CallPlan[]>> table;
+
+  /**
+   * Create a cache.
+   *
+   * @param policy the policy deciding when the plans of a class are evicted
+   */
+  ResolutionCache(CachePolicy policy) {
+    table = new ClassCache<>(policy, clazz -> new ConcurrentHashMap<>(), plans -> 64);
+  }
+
+  /**
+   * Returns the cached plan for calling {@code name} in {@code clazz}
+   * with arguments shaped like {@code args}, or {@code null} if there isn't one.
+   *
+   * @param clazz the class
+   * @param name  the executable name
+   * @param args  the arguments to be passed
+   * @return the cached plan, or {@code null}
+   */
+  CallPlan get(Class<?> clazz, String name, Object[] args) {
+    CallPlan[] plans = table.get(clazz).getOrDefault(name, NO_PLANS);
+    if (plans.length == 0) {
+      return null;
+    }
+    int[] qualifiers = CallPlan.qualifiersOf(args); // once, not once per plan
+    for (CallPlan plan : plans) {
+      if (plan.matches(args, qualifiers)) {
+        return plan;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the cached plan for calling {@code name} in {@code clazz} with arguments
+   * of the given shape, or {@code null} if there isn't one.
+   *
+   * @param clazz      the class
+   * @param name       the executable name
+   * @param argClasses the classes of the arguments ({@code null} for null arguments)
+   * @param qualifiers the {@link CallPlan#qualifiersOf(Object[]) qualifiers} of the arguments
+   * @return the cached plan, or {@code null}
+   */
+  CallPlan get(Class<?> clazz, String name, Class<?>[] argClasses, int[] qualifiers) {
+    for (CallPlan plan : table.get(clazz).getOrDefault(name, NO_PLANS)) {
+      if (plan.hasShape(argClasses, qualifiers)) {
+        return plan;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns a plan for calling {@code method} with arguments shaped like {@code args}:
+   * the plan resolved for calls to its name in {@code clazz} if that chose {@code method},
+   * otherwise a plan for {@code method} itself, cached under its signature
+   * (which no executable name clashes with) in its declaring class.
+   *
+   * @param clazz  the class of the receiver (or the declaring class, for static calls)
+   * @param method the method to call
+   * @param args   the arguments to be passed
+   * @return the plan
+   * @throws IllegalArgumentException if {@code method} can't take as many arguments as
+   *                                  {@code args} holds
+   */
+  CallPlan planFor(Class<?> clazz, Method method, Object[] args) {
+    CallPlan plan = get(clazz, method.getName(), args);
+    if (plan != null && method.equals(plan.getExecutable())) {
+      return plan;
+    }
+    Class<?> declaring = method.getDeclaringClass();
+    String signature = method.toString();
+    plan = get(declaring, signature, args);
+    if (plan == null) {
+      Overload overload = Overload.of(method);
+      if (args.length != overload.arity && !OverloadResolver.isVarArgsCall(overload, args)) {
+        throw new IllegalArgumentException("Error: " + method + " takes " + overload.arity
+            + " arguments, not " + args.length);
+      }
+      plan = CallPlan.of(overload, method.getName(), args);
+      put(declaring, signature, plan);
+    }
+    return plan;
+  }
+
+  /**
+   * Cache {@code plan} for calls to {@code name} in {@code clazz}, unless a plan for
+   * the same argument shape is cached already (as when threads resolve the same call
+   * at once). If the name has {@link #MAX_PLANS_PER_NAME} plans, its oldest is dropped.
+   *
+   * @param clazz the class
+   * @param name  the executable name
+   * @param plan  the plan to store
+   */
+  void put(Class<?> clazz, String name, CallPlan plan) {
+    boolean[] grew = {false};
+    table.get(clazz).compute(name, (k, old) -> {
+      CallPlan[] ret = append((old == null) ? NO_PLANS : old, plan);
+      grew[0] = ret.length > ((old == null) ? 0 : old.length);
+      return ret;
+    });
+    if (grew[0]) {
+      table.addBytes(clazz, plan.estimateBytes());
+    }
+  }
+
+  private static CallPlan[] append(CallPlan[] old, CallPlan plan) {
+    Class<?>[] argClasses = plan.argClasses();
+    for (CallPlan p : old) {
+      if (p.hasShape(argClasses, plan.argQualifiers())) {
+        return old;
+      }
+    }
+    int kept = Math.min(old.length, MAX_PLANS_PER_NAME - 1);
+    CallPlan[] ret = Arrays.copyOfRange(old, old.length - kept, old.length + 1);
+    ret[kept] = plan;
+    return ret;
+  }
+}
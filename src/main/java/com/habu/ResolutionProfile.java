@@ -0,0 +1,326 @@
+package com.habu;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The overload resolutions recorded during a training run
+ * (see {@link BinderInstance#setRecordingResolutions(boolean)}), so that a later run can
+ * replay them into its resolution caches before its first calls.
+ * A resolution is recorded by argument shape (see {@link CallPlan}) and winning overload
+ * signature, so replaying needs no arguments and scores no overloads.
+ * The file is keyed by the same classpath and JDK fingerprint as an {@link ImportIndex};
+ * a file with another fingerprint replays nothing.
+ *
+ * <p>Format (big-endian): {@code int MAGIC, int VERSION, long fingerprint, int entryCount},
+ * then per entry {@code byte kind, str className, str name, int argCount},
+ * per argument {@code str argClassName, int qualifier}, then {@code int paramCount}
+ * (-1 if nothing matched) and per parameter {@code str paramClassName}.
+ * {@code kind} has bit 0 set for constructors and bit 1 set for variable arity calls;
+ * null arguments have an empty class name.
+ * A {@code str} is an {@code int} byte length followed by UTF-8 bytes.
+ */
+final class ResolutionProfile {
+  private static final int MAGIC = 0x4a505250; // "JPRP"
+  private static final int VERSION = 1;
+  private static final int CONSTRUCTOR = 1;
+  private static final int VARARGS_CALL = 2;
+  private static final Set<String> PRIMITIVES = Set.of(
+      "boolean", "byte", "char", "short", "int", "long", "float", "double", "void");
+
+  // keyed by the entry's shape, as resolutions may be recorded by more than one thread
+  private final Set<Entry> entries = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Record a resolution. Resolutions in or with hidden classes (such as those of lambdas)
+   * are left out, as those classes can't be loaded by name on a later run.
+   *
+   * @param constructor whether a constructor was resolved
+   * @param clazz       the class resolved in
+   * @param name        the method name, or the class name for constructors
+   * @param plan        the resolved plan
+   */
+  void record(boolean constructor, Class<?> clazz, String name, CallPlan plan) {
+    Class<?>[] argClasses = plan.argClasses();
+    String[] argClassNames = new String[argClasses.length];
+    for (int i = 0; i < argClasses.length; i++) {
+      if (argClasses[i] != null && argClasses[i].isHidden()) {
+        return;
+      }
+      argClassNames[i] = (argClasses[i] == null) ? "" : argClasses[i].getName();
+    }
+    if (clazz.isHidden()) {
+      return;
+    }
+    String[] paramClassNames = null;
+    if (plan.getExecutable() != null) {
+      Class<?>[] paramClasses = plan.getExecutable().getParameterTypes();
+      paramClassNames = new String[paramClasses.length];
+      for (int i = 0; i < paramClasses.length; i++) {
+        paramClassNames[i] = paramClasses[i].getName();
+      }
+    }
+    int kind = (constructor ? CONSTRUCTOR : 0) | (plan.isVarArgsCall() ? VARARGS_CALL : 0);
+    entries.add(new Entry(kind, clazz.getName(), name, argClassNames,
+        plan.argQualifiers().clone(), paramClassNames));
+  }
+
+  /**
+   * Returns the recorded resolutions.
+   *
+   * @return the recorded entries
+   */
+  Collection<Entry> entries() {
+    return entries;
+  }
+
+  /**
+   * Read the resolutions stored in {@code file} for the current classpath and JDK.
+   *
+   * @param file the profile file
+   * @return the stored entries, or none if the file was saved with another classpath or JDK
+   * @throws IOException if {@code file} can't be read or is corrupt
+   */
+  static List<Entry> load(Path file) throws IOException {
+    return load(file, ImportIndex.currentFingerprint());
+  }
+
+  /**
+   * Read the resolutions stored in {@code file}, ignoring them unless they were saved
+   * with {@code fingerprint}.
+   *
+   * @param file        the profile file
+   * @param fingerprint the expected fingerprint
+   * @return the stored entries
+   * @throws IOException if {@code file} can't be read or is corrupt
+   */
+  static List<Entry> load(Path file, long fingerprint) throws IOException {
+    try (DataInputStream in = new DataInputStream(
+        new BufferedInputStream(Files.newInputStream(file)))) {
+      if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+        throw new IOException("Not a resolution profile: " + file);
+      } else if (in.readLong() != fingerprint) {
+        return List.of(); // stale profile
+      }
+      int entryCount = in.readInt();
+      List<Entry> ret = new ArrayList<>();
+      for (int i = 0; i < entryCount; i++) {
+        ret.add(readEntry(in));
+      }
+      return ret;
+    }
+  }
+
+  private static Entry readEntry(DataInputStream in) throws IOException {
+    int kind = in.readByte();
+    String className = readString(in);
+    String name = readString(in);
+    int argCount = in.readInt();
+    String[] argClassNames = new String[argCount];
+    int[] qualifiers = new int[argCount];
+    for (int i = 0; i < argCount; i++) {
+      argClassNames[i] = readString(in);
+      qualifiers[i] = in.readInt();
+    }
+    int paramCount = in.readInt();
+    String[] paramClassNames = (paramCount < 0) ? null : new String[paramCount];
+    for (int i = 0; i < paramCount; i++) {
+      paramClassNames[i] = readString(in);
+    }
+    return new Entry(kind, className, name, argClassNames, qualifiers, paramClassNames);
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Write the recorded resolutions to {@code file}.
+   *
+   * @param file the profile file
+   * @throws IOException if the file can't be written
+   */
+  void save(Path file) throws IOException {
+    List<Entry> saved = new ArrayList<>(entries);
+    Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "jpr", ".tmp");
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temp)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(VERSION);
+      out.writeLong(ImportIndex.currentFingerprint());
+      out.writeInt(saved.size());
+      for (Entry e : saved) {
+        e.write(out);
+      }
+    }
+    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  /**
+   * Write the classes the recorded resolutions call into, pass or declare as parameters
+   * to {@code file} as a CDS class list (one binary name in internal form per line, as
+   * read by {@code -XX:SharedClassListFile}), sorted. Array and primitive classes are
+   * left out.
+   *
+   * @param file the class list file
+   * @throws IOException if the file can't be written
+   */
+  void saveClassList(Path file) throws IOException {
+    Set<String> classNames = new TreeSet<>();
+    for (Entry e : entries) {
+      classNames.add(e.className);
+      classNames.addAll(Arrays.asList(e.argClassNames));
+      if (e.paramClassNames != null) {
+        classNames.addAll(Arrays.asList(e.paramClassNames));
+      }
+    }
+    try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (String className : classNames) {
+        // null arguments are recorded as ""
+        if (!className.isEmpty() && !className.startsWith("[")
+            && !PRIMITIVES.contains(className)) {
+          out.write(className.replace('.', '/'));
+          out.newLine();
+        }
+      }
+    }
+  }
+
+  /**
+   * One recorded resolution: an executable name in a class, the shape of the arguments
+   * it was called with and the signature of the overload they resolved to.
+   */
+  static final class Entry {
+    final int kind;
+    final String className;
+    final String name;
+    final String[] argClassNames;
+    final int[] qualifiers;
+    final String[] paramClassNames; // null if nothing matched
+
+    Entry(int kind, String className, String name, String[] argClassNames,
+        int[] qualifiers, String[] paramClassNames) {
+      this.kind = kind;
+      this.className = className;
+      this.name = name;
+      this.argClassNames = argClassNames;
+      this.qualifiers = qualifiers;
+      this.paramClassNames = paramClassNames;
+    }
+
+    /**
+     * Returns {@code true} if a constructor was resolved.
+     *
+     * @return whether this is a constructor resolution
+     */
+    boolean isConstructor() {
+      return (kind & CONSTRUCTOR) != 0;
+    }
+
+    /**
+     * Returns {@code true} if the resolved overload is called with variable arity.
+     *
+     * @return whether trailing arguments are packed into the varargs array
+     */
+    boolean isVarArgsCall() {
+      return (kind & VARARGS_CALL) != 0;
+    }
+
+    /**
+     * Load the classes of the recorded arguments.
+     *
+     * @param loader the class loader to load them with (without initializing them)
+     * @return the argument classes ({@code null} for null arguments)
+     * @throws ClassNotFoundException if an argument class no longer exists
+     */
+    Class<?>[] argClasses(ClassLoader loader) throws ClassNotFoundException {
+      Class<?>[] ret = new Class<?>[argClassNames.length];
+      for (int i = 0; i < ret.length; i++) {
+        ret[i] = argClassNames[i].isEmpty() ? null
+            : Class.forName(argClassNames[i], false, loader);
+      }
+      return ret;
+    }
+
+    /**
+     * Returns the overload among {@code options} with the recorded signature.
+     *
+     * @param options the overloads of the recorded name (may be {@code null})
+     * @return the overload, or {@code null} if it no longer exists (or nothing matched)
+     */
+    Overload winnerIn(Overloads options) {
+      if (options == null || paramClassNames == null) {
+        return null;
+      }
+      for (Overload o : options.withArity(paramClassNames.length)) {
+        if (hasParams(o) && (o.executable instanceof Constructor) == isConstructor()) {
+          return o;
+        }
+      }
+      return null;
+    }
+
+    private boolean hasParams(Overload o) {
+      for (int i = 0; i < o.arity; i++) {
+        if (!o.paramClasses[i].getName().equals(paramClassNames[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void write(DataOutputStream out) throws IOException {
+      out.writeByte(kind);
+      writeString(out, className);
+      writeString(out, name);
+      out.writeInt(argClassNames.length);
+      for (int i = 0; i < argClassNames.length; i++) {
+        writeString(out, argClassNames[i]);
+        out.writeInt(qualifiers[i]);
+      }
+      out.writeInt(paramClassNames == null ? -1 : paramClassNames.length);
+      for (int i = 0; paramClassNames != null && i < paramClassNames.length; i++) {
+        writeString(out, paramClassNames[i]);
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry e = (Entry) o;
+      return kind == e.kind && className.equals(e.className) && name.equals(e.name)
+          && Arrays.equals(argClassNames, e.argClassNames)
+          && Arrays.equals(qualifiers, e.qualifiers);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * className.hashCode() + name.hashCode())
+          + Arrays.hashCode(argClassNames);
+    }
+  }
+}
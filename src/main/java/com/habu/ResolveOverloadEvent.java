@@ -0,0 +1,47 @@
+package com.habu;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an overload resolution which missed the resolution cache.
+ */
+@Name("com.habu.ResolveOverload")
+@Label("Resolve Overload")
+@Category("JPI")
+@Description("Scoring the overloads of a method / constructor against the passed arguments")
+final class ResolveOverloadEvent extends Event {
+  @Label("Class")
+  String className;
+
+  @Label("Method")
+  String methodName;
+
+  @Label("Candidates Scored")
+  int candidatesScored;
+
+  @Label("Winner")
+  @Description("The chosen overload, or null if none matched")
+  String winner;
+
+  /**
+   * End the event and commit it if it is enabled.
+   *
+   * @param clazz  the class resolved in
+   * @param name   the name resolved
+   * @param scored the number of overloads scored
+   * @param winner the chosen overload, or {@code null}
+   */
+  void end(Class<?> clazz, String name, int scored, Overload winner) {
+    if (shouldCommit()) {
+      className = clazz.getName();
+      methodName = name;
+      candidatesScored = scored;
+      this.winner = (winner == null) ? null : winner.executable.toString();
+      commit();
+    }
+  }
+}
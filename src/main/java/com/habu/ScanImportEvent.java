@@ -0,0 +1,33 @@
+package com.habu;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event for an import which wasn't already imported
+ * (see {@link BinderInstance#scanImport(String)}), or for a batch of imports
+ * (see {@link BinderInstance#scanImports(java.util.Collection)}).
+ */
+@Name("com.habu.ScanImport")
+@Label("Scan Import")
+@Category("JPI")
+@Description("Finding and registering the classes matching an import string")
+final class ScanImportEvent extends Event {
+  @Label("Import String")
+  @Description("The import string, or the comma-separated import strings of a batch")
+  String importString;
+
+  @Label("Import Count")
+  @Description("The number of import strings imported together")
+  int importCount;
+
+  @Label("Classes Registered")
+  int classesRegistered;
+
+  @Label("Inner Class Attempts")
+  @Description("Scans made looking for the import string as a (nested) inner class")
+  int innerClassAttempts;
+}
@@ -0,0 +1,21 @@
+package com.habu;
+
+/**
+ * How {@link BinderInstance#scanImport(String)} finds the classes matching an import string
+ * (see {@link BinderInstance#setScanMode(ScanMode)}).
+ */
+public enum ScanMode {
+  /**
+   * Run a ClassGraph scan limited to each new import string
+   * (plus a scan per inner class name tried). This is the default.
+   */
+  PER_IMPORT,
+  /**
+   * Scan the classpath and system modules once, on the first import made in this mode
+   * by any binder, and resolve every import (including wildcard and inner class imports)
+   * against the resulting in-memory package index. Classes added to the classpath after
+   * that scan are not seen. If that scan fails, the import fails with its exception
+   * and the next import made in this mode scans again.
+   */
+  SHARED_INDEX
+}
@@ -5,9 +5,14 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -36,6 +41,11 @@ class AppTest {
     assertTrue(Binder.scanImport("com.habu.*"));
   }
 
+  @Test
+  void testBatchImport() {
+    assertTrue(Binder.scanImports(List.of("com.habu.Tester")).get("com.habu.Tester"));
+  }
+
   @Test
   void testObjsAndNulls() { // null args should resolve to the object overload
     try {
@@ -140,4 +150,268 @@ class AppTest {
     assertTrue(Binder.simpleToFullNames.containsKey(innerSimpleName));
   }
 
+  @Test
+  void cachedResolutionKeepsArgShapesApart() {
+    try {
+      Binder.call(Tester.class, "methodOverload", singleArg("xy"));
+      assertTrue(Tester.id == Tester.OBJ);
+      Binder.call(Tester.class, "methodOverload", singleArg("y"));
+      assertTrue(Tester.id == Tester.CHAR);
+      Binder.call(Tester.class, "methodOverload", singleArg(new BigDecimal(1)));
+      assertTrue(Tester.id == Tester.BYTE);
+      Binder.call(Tester.class, "methodOverload", singleArg(new BigDecimal(100000)));
+      assertTrue(Tester.id == Tester.INT);
+      Binder.call(Tester.class, "methodOverload", singleArg(new BigDecimal("1.5")));
+      assertTrue(Tester.id == Tester.FLOAT);
+      Binder.call(Tester.class, "methodOverload", singleArg(new BigDecimal(2)));
+      assertTrue(Tester.id == Tester.BYTE);
+    } catch (Exception ex) {
+      fail(ex.getMessage());
+    }
+  }
+
+  @Test
+  void cachedResolutionReturnsSameMethod() {
+    Method first = Binder.getMethod(Tester.class, "trueIfInt", singleArg(1));
+    assertTrue(first == Binder.getMethod(Tester.class, "trueIfInt", singleArg(2)));
+    assertTrue(first != Binder.getMethod(Tester.class, "trueIfInt", singleArg("s")));
+    assertTrue(Binder.getConstructor(EnumTester.class, noArgs()) == null);
+  }
+
+  @Test
+  void methodHandleBackend() {
+    Binder.setInvocationBackend(InvocationBackend.METHOD_HANDLE);
+    try {
+      assertTrue(Binder.getInvocationBackend() == InvocationBackend.METHOD_HANDLE);
+      Binder.call(Tester.class, "methodOverload", singleArg("x"));
+      assertTrue(Tester.id == Tester.CHAR);
+      Binder.call(Tester.class, "methodOverload", singleArg(new BigDecimal("2.5")));
+      assertTrue(Tester.id == Tester.FLOAT);
+      Binder.call(Tester.class, "varArgMethod", singleArg(new ArrayList<>()));
+      assertTrue(Tester.id == Tester.OBJARR);
+      ArrayList<Object> twoArgs = new ArrayList<>();
+      twoArgs.add(new BigDecimal(3));
+      twoArgs.add(4);
+      Binder.call(Tester.class, "twoArgTest", twoArgs);
+      assertTrue(Tester.id == Tester.INT);
+      Object sb = Binder.call(StringBuilder.class, "StringBuilder", singleArg("ab"));
+      Binder.call(sb, "append", singleArg("c"));
+      assertTrue(sb.toString().equals("abc"));
+      Tester t = new Tester();
+      assertTrue(Binder.call(t, "InnerNoInt", singleArg(new BigDecimal(1.1))) != null);
+      assertThrows(InvocationTargetException.class, () -> {
+        Binder.call(t, "InnerNoInt", singleArg(1));
+      });
+    } catch (Exception ex) {
+      fail(ex.getMessage());
+    } finally {
+      Binder.setInvocationBackend(InvocationBackend.REFLECTION);
+    }
+  }
+
+  @Test
+  void arrayAndFixedArityCalls() {
+    try {
+      Object[] arr = {"x"};
+      Binder.call(Tester.class, "methodOverload", arr);
+      assertTrue(Tester.id == Tester.CHAR);
+      assertTrue(arr[0].equals("x")); // converted on a copy
+      assertTrue(Binder.getMethod(Tester.class, "methodOverload", arr)
+          == Binder.getMethod(Tester.class, "methodOverload", singleArg("x")));
+      Binder.call1(Tester.class, "methodOverload", new BigDecimal("2.5"));
+      assertTrue(Tester.id == Tester.FLOAT);
+      assertTrue((int) Binder.call0("abc", "length") == 3);
+      assertTrue(Binder.call2("abcd", "substring", 1, 3).equals("bc"));
+      assertTrue(Binder.call0(Tester.class, "Tester") instanceof Tester);
+      Tester t = new Tester();
+      assertTrue(Binder.call1(t, "InnerNoInt", 1.5f) != null);
+      Object sb = Binder.newInstance(StringBuilder.class, new Object[] {"ab"});
+      Binder.call3(sb, "replace", 0, 1, "z");
+      assertTrue(sb.toString().equals("zb"));
+      assertTrue(Binder.getConstructor(StringBuilder.class, new Object[] {"ab"})
+          == Binder.getConstructor(StringBuilder.class, singleArg("ab")));
+    } catch (Exception ex) {
+      fail(ex.getMessage());
+    }
+  }
+
+  @Test
+  void methodTableCollapsesInheritedMethods() {
+    List<Overload> compareTos = MethodTable.load(String.class).get("compareTo");
+    assertTrue(compareTos.size() == 1); // the compareTo(Object) bridge is dropped
+    assertTrue(compareTos.get(0).paramClasses[0] == String.class);
+    assertTrue(MethodTable.load(ArrayList.class).get("hashCode").size() == 1);
+    List<Overload> appends = MethodTable.load(StringBuilder.class).get("append");
+    assertTrue(appends.stream().noneMatch(o -> ((Method) o.executable).isBridge()));
+    assertTrue(appends.stream().map(o -> List.of(o.paramClasses)).distinct().count()
+        == appends.size());
+    try {
+      assertTrue((int) Binder.call1("a", "compareTo", "b") < 0);
+      assertTrue(Binder.call1(new StringBuilder(), "append", "x").toString().equals("x"));
+    } catch (Exception ex) {
+      fail(ex.getMessage());
+    }
+  }
+
+  @Test
+  void tieredBackendCompilesHotCalls() {
+    Binder.setInvocationBackend(InvocationBackend.TIERED);
+    Binder.setCompileThreshold(1);
+    try {
+      for (int i = 0; i < 2; i++) { // reflective first, then compiled
+        Binder.call(Tester.class, "methodOverload", singleArg("x"));
+        assertTrue(Tester.id == Tester.CHAR);
+        assertTrue((boolean) Binder.call(Tester.class, "trueIfInt", singleArg(3)));
+        assertTrue((boolean) Binder.call(Tester.StaticInner.class, "callMe", noArgs()));
+        assertTrue(Binder.call(Tester.class, "Tester", noArgs()) instanceof Tester);
+        Binder.call(Thread.class, "yield", noArgs());
+        StringBuilder sb = new StringBuilder("abc");
+        Binder.call(sb, "append", singleArg("d"));
+        Binder.call(sb, "trimToSize", noArgs());
+        ArrayList<Object> twoArgs = new ArrayList<>();
+        twoArgs.add(0);
+        twoArgs.add("z");
+        Binder.call(sb, "setCharAt", twoArgs);
+        twoArgs.set(1, 2);
+        assertTrue(Binder.call(sb, "substring", twoArgs).equals("zb"));
+        assertTrue(((Number) Binder.call(Math.class, "abs", singleArg('a'))).intValue() == 97);
+        ArrayList<Object> fourArgs = new ArrayList<>();
+        fourArgs.add(1);
+        fourArgs.add("b");
+        fourArgs.add(0);
+        fourArgs.add(1);
+        assertTrue((boolean) Binder.call("ab", "regionMatches", fourArgs));
+      }
+      assertTrue(Binder.getCompileThreshold() == 1);
+      assertThrows(InvocationTargetException.class, () -> {
+        Binder.call(Integer.class, "parseInt", singleArg("x"));
+      });
+    } catch (Exception ex) {
+      fail(ex.getMessage());
+    } finally {
+      Binder.setInvocationBackend(InvocationBackend.REFLECTION);
+      Binder.setCompileThreshold(100);
+    }
+  }
+
+  @Test
+  void bigDecimalRanks() {
+    String[][] expected = {
+      {"0", "BYTE"}, {"0.000", "BYTE"}, {"-128", "BYTE"}, {"127.00", "BYTE"},
+      {"128", "SHORT"}, {"-32768", "SHORT"}, {"1E+3", "SHORT"}, {"32768", "INT"},
+      {"2147483648.0", "LONG"}, {"9223372036854775807", "LONG"},
+      {"-9223372036854775808.0000000", "LONG"}, {"9223372036854775808", "FLOAT"},
+      {"1.5", "FLOAT"}, {"0.001", "FLOAT"}, {"123456789012345.6", "FLOAT"},
+      {"1.0000000000000000000001", "FLOAT"}, {"3.4028235E+38", "DOUBLE"},
+      {"3.4028234E+38", "FLOAT"}, {"1E+308", "DOUBLE"}, {"1.8E+308", "NAN"},
+      {"-1E+400", "NAN"}
+    };
+    for (String[] e : expected) {
+      assertTrue(NumRank.rank(new BigDecimal(e[0])).name().equals(e[1]), e[0]);
+    }
+    assertTrue(NumRank.rankOf(null) == NumRank.NAN);
+    assertTrue(NumRank.rankOf(new BigDecimal("300")) == NumRank.SHORT);
+    assertTrue(NumRank.rankOf(7L) == NumRank.LONG);
+  }
+
+  @Test
+  void varargsCalls() throws Exception {
+    assertTrue(Binder.call2(String.class, "format", "%s!", "hi").equals("hi!"));
+    assertTrue(Binder.call3(String.class, "format", "%d-%s", 1, "b").equals("1-b"));
+    assertTrue(Binder.call1(String.class, "format", "none").equals("none"));
+    Object[] packed = {"%s/%s", new Object[] {"a", "b"}};
+    assertTrue(Binder.call(String.class, "format", packed).equals("a/b")); // passed as is
+    assertTrue(Binder.call3(Arrays.class, "asList", "x", "y", "z").equals(List.of("x", "y", "z")));
+    assertTrue(((List<?>) Binder.call0(Arrays.class, "asList")).isEmpty());
+    assertTrue(Binder.call3(List.class, "of", 1, 2, 3).equals(List.of(1, 2, 3)));
+    assertTrue(Binder.call(Tester.class, "sumLongs", new Object[] {1, (short) 2, 'a', 4})
+        .equals(104L));
+    assertTrue(Binder.call1(Tester.class, "sumLongs", 5).equals(5L));
+    assertTrue(Binder.call0(Tester.class, "sumLongs").equals(0L));
+    assertTrue(Binder.call2(Tester.class, "joinChars", "-", "a").equals("-a"));
+    assertTrue(Binder.call3(Tester.class, "joinChars", "-", "a", "b").equals("-ab"));
+    Binder.setInvocationBackend(InvocationBackend.METHOD_HANDLE);
+    try {
+      assertTrue(Binder.call3(String.class, "format", "%s%s", "c", "d").equals("cd"));
+      assertTrue(Binder.call2(Tester.class, "sumLongs", 1, 2).equals(3L));
+    } finally {
+      Binder.setInvocationBackend(InvocationBackend.REFLECTION);
+    }
+    assertThrows(IllegalArgumentException.class, () -> {
+      Binder.callReturningLong(Tester.class, "sumLongs", 1L);
+    });
+    List<Object> formatArgs = List.of("%s %s", "a", "b");
+    Method format = Binder.getMethod(String.class, "format", formatArgs);
+    assertTrue(format.isVarArgs());
+    assertTrue(Binder.invoke(String.class, format, formatArgs).equals("a b"));
+    assertTrue(Binder.invoke(null, format, List.of("%s", 1)).equals("1"));
+    Method sumLongs = Binder.getMethod(Tester.class, "sumLongs", List.of(1, 2, 3));
+    assertTrue(Binder.invoke(null, sumLongs, List.of(1, 2, 3)).equals(6L));
+    assertTrue(Binder.invoke(null, sumLongs, List.of()).equals(0L));
+  }
+
+  @Test
+  void replacedStaticFinalsAreReadAgain() {
+    PrintStream out = System.out;
+    PrintStream replacement = new PrintStream(new ByteArrayOutputStream());
+    assertTrue(Binder.getField(System.class, "out") == out);
+    try {
+      System.setOut(replacement);
+      assertTrue(Binder.getField(System.class, "out") == replacement);
+    } finally {
+      System.setOut(out);
+    }
+    assertTrue(Binder.getField(System.class, "out") == out);
+  }
+
+  @Test
+  void fieldAccess() throws Exception {
+    Tester t = new Tester();
+    for (int i = 0; i < 2; i++) { // uncached, then cached
+      assertTrue(Binder.getField(Tester.class, "INT").equals(Tester.INT));
+      assertTrue(Binder.getField(EnumTester.class, "OK") == EnumTester.OK);
+      assertTrue(Binder.getField(t, "name").equals("tester"));
+      assertTrue(Binder.getField(t, "noSuchField") == null);
+      assertTrue(Binder.getFieldOrInnerClass(Tester.class, "StaticInner")
+          == Tester.StaticInner.class);
+    }
+    Binder.setField(t, "letter", "z");
+    assertTrue(Binder.getField(t, "letter").equals('z'));
+    Binder.setField(t, "letter", 98);
+    assertTrue(t.letter == 'b');
+    Binder.setField(Tester.class, "id", new BigDecimal(7));
+    assertTrue(Binder.getField(Tester.class, "id").equals(7) && Tester.id == 7);
+    Binder.setField(Tester.class, "id", -1);
+    assertThrows(IllegalAccessException.class, () -> Binder.setField(t, "name", "x"));
+    assertThrows(IllegalAccessException.class, () -> Binder.setField(Tester.class, "INT", 1));
+    assertThrows(NoSuchFieldException.class, () -> Binder.setField(t, "noSuchField", 1));
+    assertThrows(IllegalArgumentException.class, () -> Binder.setField(t, "letter", List.of()));
+    assertThrows(IllegalArgumentException.class,
+        () -> Binder.setField(Tester.class, "letter", 'x'));
+  }
+
+  @Test
+  void primitiveCalls() throws Exception {
+    assertTrue(Binder.callReturningLong(Math.class, "max", 3L, 5L) == 5L);
+    assertTrue(Binder.callReturningLong(Math.class, "abs", -2L) == 2L);
+    assertTrue(Binder.callReturningLong(Long.class, "numberOfTrailingZeros", 8L) == 3L);
+    assertTrue(Binder.callReturningLong("abc", "length") == 3L);
+    assertTrue(Binder.callReturningLong(Long.valueOf(7), "doubleValue") == 7L);
+    assertTrue(Binder.callReturningDouble(Math.class, "sqrt", 16.0) == 4.0);
+    assertTrue(Binder.callReturningDouble(Math.class, "pow", 2.0, 10.0) == 1024.0);
+    assertTrue(Binder.callReturningDouble(Math.class, "round", 2.5) == 3.0);
+    double random = Binder.callReturningDouble(Math.class, "random");
+    assertTrue(random >= 0 && random < 1);
+    assertTrue(Binder.callReturningDouble(Double.class, "valueOf", 1.5) == 1.5);
+    assertThrows(InvocationTargetException.class, () -> {
+      Binder.callReturningLong(Math.class, "floorDiv", 1L, 0L);
+    });
+    assertThrows(IllegalArgumentException.class, () -> {
+      Binder.callReturningLong("abc", "isEmpty");
+    });
+    assertThrows(NullPointerException.class, () -> {
+      Binder.callReturningDouble(Math.class, "noSuchMethod", 1.0);
+    });
+  }
+
 }
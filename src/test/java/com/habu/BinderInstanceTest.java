@@ -0,0 +1,745 @@
+package com.habu;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.github.classgraph.ClassGraph;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for separate / concurrently used binders.
+ */
+class BinderInstanceTest {
+
+  @Test
+  void instancesKeepImportsAndSettingsApart() {
+    BinderInstance first = new BinderInstance();
+    BinderInstance second = new BinderInstance();
+    assertTrue(first.scanImport("com.habu.Tester"));
+    assertTrue(first.getFullClassName("Tester").equals("com.habu.Tester"));
+    assertTrue(second.getFullClassName("Tester") == null);
+    second.setInvocationBackend(InvocationBackend.METHOD_HANDLE);
+    second.setCompileThreshold(5);
+    assertTrue(first.getInvocationBackend() == InvocationBackend.REFLECTION);
+    assertTrue(second.getCompileThreshold() == 5);
+    assertTrue(Binder.getDefault() != first);
+  }
+
+  @Test
+  void callSitesCacheBindings() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    BinderCallSite max = binder.callSite("max");
+    assertTrue(max.getFunctionName().equals("max"));
+    for (int i = 0; i < 3; i++) {
+      assertTrue(max.call2(Math.class, 1, 2).equals(2));
+      assertTrue(max.call2(Math.class, 1.5, 2).equals(2.0));
+    }
+    assertTrue(max.bindingCount() == 2 && !max.isMegamorphic());
+
+    BinderCallSite ctor = binder.callSite("StringBuilder");
+    assertTrue(ctor.call1(StringBuilder.class, "ab").toString().equals("ab"));
+    Tester outer = new Tester();
+    BinderCallSite inner = binder.callSite("InnerNoInt");
+    assertTrue(inner.call1(outer, 1.5f) != null);
+    assertTrue(inner.call1(outer, 2.5f) != null);
+    assertTrue(inner.bindingCount() == 1);
+    assertThrows(InvocationTargetException.class, () -> inner.call1(Tester.class, 1.5f));
+    assertTrue(binder.callSite("StaticInner").call0(Tester.class) != null);
+
+    BinderCallSite toString = binder.callSite("toString");
+    Object[] receivers = {1, 2L, "s", 'c', 1.0, new StringBuilder("sb"), List.of()};
+    for (int i = 0; i < 2; i++) {
+      for (Object receiver : receivers) {
+        assertTrue(toString.call0(receiver).equals(receiver.toString()));
+      }
+    }
+    assertTrue(toString.isMegamorphic() && toString.bindingCount() == 0);
+    assertThrows(NullPointerException.class, () -> binder.callSite("nope").call0("s"));
+    assertThrows(NullPointerException.class,
+        () -> Binder.callSite("abs").call3(Math.class, -1, 2, 3));
+    assertTrue(binder.callSite("length").call("abc", new Object[0]).equals(3));
+  }
+
+  @Test
+  void importIndexAnswersLaterImports(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("imports.idx");
+    BinderInstance training = new BinderInstance();
+    training.saveImportIndex(); // no index set: nothing to do
+    training.setImportIndex(file);
+    assertTrue(training.scanImport("com.habu.*"));
+    assertTrue(training.scanImport("com.habu.Tester.InnerToImport"));
+    assertTrue(!training.scanImport("com.habu.NoSuchClass"));
+    training.saveImportIndex();
+
+    ImportIndex index = ImportIndex.open(file);
+    assertTrue(index.get("com.habu.*").size() > 3);
+    assertTrue(index.get("com.habu.NoSuchClass") == null);
+    assertTrue(ImportIndex.open(file, 42L).get("com.habu.*") == null); // other classpath
+
+    BinderInstance later = new BinderInstance();
+    later.setImportIndex(file);
+    assertTrue(later.scanImport("com.habu.Tester.InnerToImport"));
+    assertTrue(later.getFullClassName("InnerToImport").equals("com.habu.Tester$InnerToImport"));
+    assertTrue(later.getFullClassName("InnerNoInt") == null); // not a static inner class
+    later.saveImportIndex();
+    assertTrue(ImportIndex.open(file).get("com.habu.*") != null);
+
+    Files.write(file, new byte[] {1, 2, 3});
+    assertTrue(ImportIndex.open(file).get("com.habu.*") == null); // corrupt index
+    later.setImportIndex(null);
+  }
+
+  @Test
+  void savingAnIndexReleasesItsMapping(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("imports.idx");
+    BinderInstance training = new BinderInstance();
+    training.setImportIndex(file);
+    assertTrue(training.scanImport("com.habu.*"));
+    assertTrue(training.scanImport("com.habu.Tester.InnerToImport"));
+    training.saveImportIndex();
+    training.setImportIndex(null);
+
+    ImportIndex closed = ImportIndex.open(file);
+    assertTrue(closed.get("com.habu.*") != null);
+    closed.close();
+    assertTrue(closed.get("com.habu.*") != null); // decoded before closing
+    assertTrue(closed.get("com.habu.Tester.InnerToImport") == null); // to be scanned again
+
+    ImportIndex index = ImportIndex.open(file);
+    index.save(); // decodes everything, then replaces the (no longer mapped) file
+    index.save();
+    assertTrue(index.get("com.habu.Tester.InnerToImport") != null);
+    assertTrue(ImportIndex.open(file).get("com.habu.Tester.InnerToImport") != null);
+  }
+
+  @Test
+  void corruptIndexSectionsAreRescanned(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("imports.idx");
+    String importString = "com.habu.Tester.InnerToImport";
+    BinderInstance training = new BinderInstance();
+    training.setImportIndex(file);
+    assertTrue(training.scanImport(importString));
+    training.saveImportIndex();
+
+    // overwrite the section's class count (after the header, import string and length)
+    byte[] bytes = Files.readAllBytes(file);
+    ByteBuffer.wrap(bytes).putInt(20 + 4 + importString.length() + 4, Integer.MAX_VALUE);
+    Files.write(file, bytes);
+    assertTrue(ImportIndex.open(file).get(importString) == null);
+
+    BinderInstance later = new BinderInstance();
+    later.setImportIndex(file);
+    assertTrue(later.scanImport(importString));
+    assertTrue(later.getFullClassName("InnerToImport").equals("com.habu.Tester$InnerToImport"));
+    later.saveImportIndex(); // rewritten from the rescan
+    assertTrue(ImportIndex.open(file).get(importString).size() == 1);
+    later.setImportIndex(null);
+  }
+
+  @Test
+  void fingerprintCoversNestedClassFiles() throws Exception {
+    Path nested = Path.of(BinderInstanceTest.class.getProtectionDomain().getCodeSource()
+        .getLocation().toURI()).resolve("com/habu/FingerprintProbe.class");
+    long before = ImportIndex.currentFingerprint();
+    Files.write(nested, new byte[0]);
+    try {
+      assertTrue(ImportIndex.currentFingerprint() != before);
+    } finally {
+      Files.delete(nested);
+    }
+    assertTrue(ImportIndex.currentFingerprint() == before);
+  }
+
+  @Test
+  void fingerprintCoversManifestClassPathsAndModulePaths(@TempDir Path dir) throws Exception {
+    Path lib = Files.createDirectories(dir.resolve("lib"));
+    Path app = dir.resolve("app.jar");
+    Manifest manifest = new Manifest();
+    manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+    manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, "lib/dep.jar");
+    new JarOutputStream(Files.newOutputStream(app), manifest).close();
+    Files.write(lib.resolve("dep.jar"), new byte[1]);
+    long before = ImportIndex.fingerprint(app.toString(), "");
+    assertTrue(ImportIndex.fingerprint(app.toString(), "") == before);
+    Files.write(lib.resolve("dep.jar"), new byte[2]); // only named by app.jar's manifest
+    assertTrue(ImportIndex.fingerprint(app.toString(), "") != before);
+
+    long modules = ImportIndex.fingerprint("", lib.toString());
+    Files.write(lib.resolve("other.jar"), new byte[1]);
+    assertTrue(ImportIndex.fingerprint("", lib.toString()) != modules);
+  }
+
+  @Test
+  void failedIndexScansAreRetried() {
+    IllegalStateException failure = new IllegalStateException("scan failed");
+    int[] scans = {0};
+    PackageIndex.Lazy lazy = new PackageIndex.Lazy(() -> {
+      if (scans[0]++ == 0) {
+        throw failure;
+      }
+      return new ClassGraph().acceptClasses(Tester.class.getName()).scan();
+    });
+    assertTrue(assertThrows(IllegalStateException.class, lazy::get) == failure);
+    PackageIndex index = lazy.get();
+    assertTrue(lazy.get() == index && scans[0] == 2);
+    assertTrue(index.find("com.habu.Tester").size() == 1);
+  }
+
+  @Test
+  void sharedIndexResolvesImports() {
+    BinderInstance binder = new BinderInstance();
+    binder.setScanMode(ScanMode.SHARED_INDEX);
+    assertTrue(binder.getScanMode() == ScanMode.SHARED_INDEX);
+    assertTrue(binder.scanImport("com.habu.*"));
+    assertTrue(binder.getFullClassName("StaticInner").equals("com.habu.Tester$StaticInner"));
+    assertTrue(binder.getFullClassName("InnerNoInt") == null);
+    assertTrue(binder.scanImport("java.util.concurrent.ConcurrentHashMap.KeySetView"));
+    assertTrue(binder.getFullClassName("KeySetView") != null);
+    assertTrue(binder.scanImport("java.time.format"));
+    assertTrue(binder.getFullClassName("DateTimeFormatter") != null);
+    assertTrue(!binder.scanImport("java.time.NoSuchClass"));
+    assertTrue(!binder.scanImport("nosuchpackage.*"));
+  }
+
+  @Test
+  void batchImports(@TempDir Path dir) throws Exception {
+    BinderInstance binder = new BinderInstance();
+    binder.setImportIndex(dir.resolve("imports.idx"));
+    assertTrue(binder.scanImport("java.time.LocalDate"));
+    Map<String, Boolean> results = binder.scanImports(List.of(
+        "java.time.LocalDate", "java.util.*", "java.util.concurrent.ConcurrentHashMap.KeySetView",
+        "com.habu.Tester", "java.time.format", "no.such.Thing", "java.util.*"));
+    assertTrue(results.size() == 6);
+    assertTrue(!results.get("no.such.Thing"));
+    results.remove("no.such.Thing");
+    assertTrue(!results.containsValue(false));
+    assertTrue(binder.getFullClassName("ArrayList").equals("java.util.ArrayList"));
+    assertTrue(binder.getFullClassName("KeySetView") != null);
+    assertTrue(binder.getFullClassName("Tester").equals("com.habu.Tester"));
+    assertTrue(binder.getFullClassName("DateTimeFormatter") != null);
+    binder.setScanMode(ScanMode.SHARED_INDEX);
+    assertTrue(binder.scanImports(List.of("java.util.stream.*")).get("java.util.stream.*"));
+  }
+
+  @Test
+  void asyncImportsAndPrefetch() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    assertTrue(binder.getImportExecutor() != null);
+    assertTrue(binder.scanImportAsync("java.time.*")
+        .thenCompose(ok -> binder.prefetch("java.time.*")).get() > 10);
+    assertTrue(binder.getFullClassName("LocalDate").equals("java.time.LocalDate"));
+    int entries = binder.getCacheEntryCount();
+    assertTrue(entries > 30);
+    binder.call(java.time.LocalDate.class, "of", new Object[] {2020, 1, 1});
+    assertTrue(binder.getCacheEntryCount() == entries + 1); // only the resolved call is new
+    assertTrue(binder.prefetch("not.imported.*").get() == 0);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      binder.setImportExecutor(executor);
+      assertTrue(binder.getImportExecutor() == executor);
+      assertTrue(!binder.scanImportAsync("nosuchpackage.*").get());
+      assertTrue(binder.scanImportAsync("com.habu.Tester").get());
+      assertTrue(binder.prefetch("com.habu.Tester").get() == 1);
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void invokeGoesThroughPlans() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    binder.setInvocationBackend(InvocationBackend.METHOD_HANDLE);
+    binder.setMetricsEnabled(true);
+    Method max = binder.getMethod(Math.class, "max", List.of(1, 2L));
+    int entries = binder.getCacheEntryCount();
+    assertTrue(binder.invoke(Math.class, max, List.of(3, 4L)).equals(4L));
+    assertTrue(binder.invoke(null, max, List.of(5, 6L)).equals(6L));
+    assertTrue(binder.getCacheEntryCount() == entries); // the resolved plan was reused
+    assertTrue(binder.getMetrics().getInvoke().getCount() == 2);
+
+    Method valueOf = String.class.getMethod("valueOf", char.class);
+    assertTrue(binder.invoke(null, valueOf, List.of('x')).equals("x"));
+    assertTrue(binder.invoke(null, valueOf, List.of("y")).equals("y"));
+    Method parse = Integer.class.getMethod("parseInt", String.class);
+    assertTrue(binder.invoke(null, parse, List.of("12")).equals(12));
+    assertThrows(IllegalArgumentException.class,
+        () -> binder.invoke(null, parse, List.of("1", "2")));
+    assertThrows(InvocationTargetException.class,
+        () -> binder.invoke(null, parse, List.of("x"))); // static: no caller needed
+    assertThrows(NullPointerException.class, () -> binder.invoke(null, null, List.of()));
+  }
+
+  @Test
+  void recordedResolutionsReplay(@TempDir Path dir) throws Exception {
+    Path file = dir.resolve("resolutions.prof");
+    BinderInstance training = new BinderInstance();
+    training.call(Math.class, "abs", new Object[] {-1});
+    training.setRecordingResolutions(true);
+    assertTrue(training.isRecordingResolutions());
+    training.call(Math.class, "max", new Object[] {1, 2L});
+    training.call(Tester.class, "joinChars", new Object[] {"-", "a", "b"});
+    training.newInstance(StringBuilder.class, new Object[] {"x"});
+    training.call(Math.class, "max", new Object[] {3, 4L}); // cached: not recorded again
+    Runnable lambda = () -> { };
+    training.call(Objects.class, "hash", new Object[] {lambda}); // hidden: not recorded
+    training.call(lambda, "run", new Object[0]);
+    assertThrows(NullPointerException.class,
+        () -> training.call(Math.class, "noSuchMethod", new Object[] {null}));
+    training.setRecordingResolutions(false);
+    training.call(Math.class, "min", new Object[] {1, 2});
+    training.saveResolutions(file);
+    Path classList = dir.resolve("classes.lst");
+    training.saveClassList(classList);
+    List<String> classes = Files.readAllLines(classList);
+    assertTrue(classes.contains("java/lang/Math") && classes.contains("com/habu/Tester"));
+    assertTrue(classes.contains("java/lang/Long") && classes.contains("java/lang/String"));
+    assertTrue(!classes.contains("long") && !classes.contains(""));
+    assertTrue(classes.stream().noneMatch(c -> c.contains("$$Lambda")));
+    assertTrue(ResolutionProfile.load(file).size() == 4);
+    assertTrue(ResolutionProfile.load(file, 42L).isEmpty()); // other classpath
+
+    BinderInstance later = new BinderInstance();
+    assertTrue(later.replayResolutions(file) == 4);
+    assertTrue(later.replayResolutions(file) == 0); // already cached
+    int entries = later.getCacheEntryCount();
+    assertTrue(later.getField(Tester.class, "INT").equals(Tester.INT));
+    assertTrue(later.getCacheEntryCount() == entries); // member table replayed too
+    later.setMetricsEnabled(true);
+    assertTrue(later.call(Math.class, "max", new Object[] {5, 6L}).equals(6L));
+    assertTrue(later.call(Tester.class, "joinChars", new Object[] {"+", "c", "d"}).equals("+cd"));
+    assertTrue(later.newInstance(StringBuilder.class, new Object[] {"y"}).toString().equals("y"));
+    assertThrows(NullPointerException.class,
+        () -> later.call(Math.class, "noSuchMethod", new Object[] {null}));
+    assertTrue(later.getMetrics().getCacheMisses() == 0);
+    assertTrue(later.getMetrics().getCacheHits() == 4);
+    assertTrue(later.getFullClassName("Tester").equals("com.habu.Tester"));
+
+    Files.write(file, new byte[] {1, 2, 3});
+    assertThrows(IOException.class, () -> later.replayResolutions(file));
+  }
+
+  @Test
+  void badCallsFailAlikeWithEveryBackend() throws Exception {
+    Method length = String.class.getMethod("length");
+    Method abs = Math.class.getMethod("abs", int.class);
+    Method parse = Integer.class.getMethod("parseInt", String.class);
+    for (InvocationBackend backend : InvocationBackend.values()) {
+      BinderInstance binder = new BinderInstance();
+      binder.setInvocationBackend(backend);
+      binder.setCompileThreshold(1);
+      for (int i = 0; i < 2; i++) { // compiled once hot
+        assertTrue(binder.invoke(null, abs, List.of(-1)).equals(1));
+        assertTrue(binder.invoke("abc", length, List.of()).equals(3));
+      }
+      assertTrue(binder.invoke("abc", length, List.of()).equals(3));
+      assertThrows(IllegalArgumentException.class, () -> binder.invoke(5, length, List.of()));
+      assertThrows(NullPointerException.class, () -> binder.invoke(null, length, List.of()));
+      assertThrows(IllegalArgumentException.class,
+          () -> binder.invoke(null, abs, Arrays.asList((Object) null)));
+      assertThrows(IllegalArgumentException.class, () -> binder.invoke(null, abs, List.of("xy")));
+      assertTrue(binder.invoke(null, abs, List.of('a')).equals(97)); // widened, as by reflection
+      assertThrows(InvocationTargetException.class,
+          () -> binder.invoke(null, parse, List.of("x"))); // thrown by the callee
+    }
+  }
+
+  @Test
+  void megamorphicCallSitesStayMegamorphic() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    BinderCallSite hashCode = binder.callSite("hashCode");
+    Object[] receivers = {1, 2L, "s", 'c', 1.0, 1.5f, (short) 3, (byte) 4, true, new ArrayList<>()};
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        int offset = t;
+        futures.add(pool.submit(() -> {
+          for (int i = 0; i < 200; i++) {
+            Object receiver = receivers[(i + offset) % receivers.length];
+            assertTrue(hashCode.call0(receiver).equals(receiver.hashCode()));
+          }
+          return null;
+        }));
+      }
+      for (Future<?> f : futures) {
+        f.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+    assertTrue(hashCode.isMegamorphic() && hashCode.bindingCount() == 0);
+    assertTrue(hashCode.call0("t").equals("t".hashCode()));
+    assertTrue(hashCode.isMegamorphic());
+  }
+
+  @Test
+  void batchCalls() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    BinderCallSite round = binder.callSite("round");
+    Object[][] rows = new Object[1000][];
+    for (int i = 0; i < rows.length; i++) {
+      rows[i] = new Object[] {i + 0.6};
+    }
+    for (boolean parallel : new boolean[] {false, true}) {
+      Object[] results = new Object[rows.length];
+      round.callAll(Math.class, rows, results, parallel);
+      for (int i = 0; i < rows.length; i++) {
+        assertTrue(results[i].equals(i + 1L));
+      }
+    }
+    assertTrue(round.bindingCount() == 1);
+    BinderCallSite max = binder.callSite("max");
+    List<Object[]> mixed = List.of(new Object[] {1, 2}, new Object[] {1.5, 2}, new Object[] {3, 2});
+    assertTrue(max.callAll(Math.class, mixed, Collectors.toList()).equals(List.of(2, 2.0, 3)));
+    assertTrue(max.callAll(Math.class, mixed.stream().parallel(), Collectors.toList())
+        .equals(List.of(2, 2.0, 3)));
+    assertTrue(max.bindingCount() == 2);
+
+    Object[] receivers = {"ab", 1, new StringBuilder("sb")};
+    Object[] strings = new Object[3];
+    binder.callSite("toString").callEach(receivers, null, strings, true);
+    assertTrue(Arrays.equals(strings, new Object[] {"ab", "1", "sb"}));
+    Object[] concats = new Object[2];
+    binder.callSite("concat").callEach(new Object[] {"a", "b"},
+        new Object[][] {{"1"}, {"2"}}, concats, false);
+    assertTrue(Arrays.equals(concats, new Object[] {"a1", "b2"}));
+    Object[] built = new Object[2];
+    binder.callSite("StringBuilder").callAll(StringBuilder.class,
+        new Object[][] {{"x"}, {}}, built, true);
+    assertTrue(built[0].toString().equals("x") && built[1].toString().isEmpty());
+
+    BinderCallSite parseInt = binder.callSite("parseInt");
+    Object[][] bad = {{"1"}, {"x"}, {"3"}};
+    assertThrows(InvocationTargetException.class,
+        () -> parseInt.callAll(Integer.class, bad, new Object[3], false));
+    assertThrows(InvocationTargetException.class,
+        () -> parseInt.callAll(Integer.class, bad, new Object[3], true));
+    assertThrows(InvocationTargetException.class,
+        () -> parseInt.callAll(Integer.class, Arrays.stream(bad).parallel(), Collectors.toList()));
+    assertThrows(IllegalArgumentException.class,
+        () -> parseInt.callAll(Integer.class, bad, new Object[2], false));
+    assertThrows(IllegalArgumentException.class,
+        () -> parseInt.callEach(new Object[] {Integer.class}, new Object[0][], new Object[1], false));
+  }
+
+  @Test
+  void concurrentCallsIntoNewClass() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    binder.setInvocationBackend(InvocationBackend.TIERED);
+    binder.setCompileThreshold(10);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        results.add(pool.submit(() -> {
+          for (int i = 0; i < 50; i++) {
+            StringBuilder sb = (StringBuilder) binder.call(
+                StringBuilder.class, "StringBuilder", Collections.singletonList("a"));
+            binder.call(sb, "append", Collections.singletonList(i));
+            if (!sb.toString().equals("a" + i)) {
+              return false;
+            }
+          }
+          return binder.getMethod(Math.class, "max", List.of(1, 2)).getName().equals("max");
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        assertTrue(result.get());
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  void cachesAreBoundedAndReported() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    assertTrue(binder.getCacheLimit() == Integer.MAX_VALUE);
+    binder.call(Math.class, "max", new Object[] {1, 2});
+    binder.call(new StringBuilder(), "append", new Object[] {"a"});
+    binder.newInstance(ArrayList.class, new Object[] {4});
+    // methods + plans + fields, constructors + plans
+    assertTrue(binder.getCacheEntryCount() == 8);
+    long bytes = binder.getCacheRetainedBytes();
+    assertTrue(bytes > 0);
+    binder.setCacheLimit(2);
+    assertTrue(binder.getCacheEntryCount() <= 2);
+    assertTrue(binder.getCacheRetainedBytes() < bytes);
+    assertTrue((int) binder.call(Math.class, "max", new Object[] {1, 2}) == 2); // reloaded
+    assertTrue(binder.getCacheEntryCount() <= 2);
+    binder.clearCaches();
+    assertTrue(binder.getCacheEntryCount() == 0);
+    assertThrows(IllegalArgumentException.class, () -> binder.setCacheLimit(-1));
+  }
+
+  @Test
+  void cachedClassesCanBeUnloaded() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    WeakReference<Class<?>> ref = callIntoIsolatedClass(binder);
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertTrue(ref.get() == null);
+    assertTrue(binder.getCacheEntryCount() == 0);
+  }
+
+  @Test
+  void argumentClassesCanBeUnloaded() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    WeakReference<Class<?>> ref = passIsolatedInstance(binder);
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertTrue(ref.get() == null); // though String's resolved plans outlive it
+    assertTrue(binder.call(String.class, "valueOf", new Object[] {1}).equals("1"));
+  }
+
+  private static WeakReference<Class<?>> passIsolatedInstance(BinderInstance binder)
+      throws Exception {
+    Class<?> clazz = new IsolatingLoader().define(StaticOuter.class.getName());
+    Object instance = clazz.getConstructor().newInstance();
+    assertTrue(binder.call(String.class, "valueOf", new Object[] {instance}) != null);
+    return new WeakReference<>(clazz);
+  }
+
+  @Test
+  void discardedCachesCanBeCollected() throws Exception {
+    WeakReference<ClassCache<Object>> ref = cacheStringAndMath();
+    for (int i = 0; i < 50 && ref.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertTrue(ref.get() == null); // not held through String's or Math's ClassValue maps
+  }
+
+  private static WeakReference<ClassCache<Object>> cacheStringAndMath() {
+    ClassCache<Object> cache = new ClassCache<>(new CachePolicy(), c -> new Object(), v -> 1);
+    cache.get(String.class);
+    cache.get(Math.class);
+    return new WeakReference<>(cache);
+  }
+
+  @Test
+  void resolutionCacheKeepsOnePlanPerShape() throws Exception {
+    CachePolicy policy = new CachePolicy();
+    ResolutionCache cache = new ResolutionCache(policy);
+    Overload valueOf = Overload.of(String.class.getMethod("valueOf", Object.class));
+    List<Class<?>> shapes = List.of(String.class, Integer.class, Long.class, Short.class,
+        Byte.class, Double.class, Float.class, Character.class, Boolean.class, Object.class,
+        ArrayList.class, Map.class, StringBuilder.class, Thread.class, Math.class,
+        System.class, Runtime.class);
+    assertTrue(shapes.size() > ResolutionCache.MAX_PLANS_PER_NAME);
+
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<?>> puts = new ArrayList<>();
+      for (int i = 0; i < 8; i++) { // threads resolving the same call at once
+        puts.add(executor.submit(() -> cache.put(String.class, "valueOf",
+            CallPlan.of(valueOf, "valueOf", new Object[] {"x"}))));
+      }
+      for (Future<?> put : puts) {
+        put.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    CallPlan first = cache.get(String.class, "valueOf", new Object[] {"y"});
+    long bytes = policy.retainedBytes();
+    assertTrue(bytes == 64 + first.estimateBytes()); // the first plan added, the others not
+
+    for (Class<?> c : shapes) {
+      cache.put(String.class, "valueOf",
+          CallPlan.of(valueOf, "valueOf", new Class<?>[] {c}, new int[1], false));
+    }
+    assertTrue(cache.get(String.class, "valueOf", new Object[] {"y"}) == null); // the oldest
+    assertTrue(cache.get(String.class, "valueOf", new Object[] {7}) != null);
+    assertTrue(cache.get(String.class, "valueOf", new Class<?>[] {Runtime.class}, new int[1])
+        != null);
+  }
+
+  @Test
+  void evictionGivesUsedEntriesASecondChance() {
+    CachePolicy policy = new CachePolicy();
+    policy.setMaxEntries(3);
+    List<Class<?>> loads = new ArrayList<>();
+    ClassCache<Class<?>> cache = new ClassCache<>(policy, c -> {
+      loads.add(c);
+      return c;
+    }, v -> 1);
+    cache.get(String.class);
+    cache.get(Integer.class);
+    cache.get(Long.class);
+    cache.get(String.class); // used since admitted
+    cache.get(Double.class); // over the bound: evicts Integer, not String
+    assertTrue(policy.size() == 3 && loads.size() == 4);
+    cache.get(String.class);
+    cache.get(Long.class);
+    assertTrue(loads.size() == 4);
+    cache.get(Integer.class);
+    assertTrue(loads.size() == 5 && policy.size() == 3);
+    policy.clear();
+    assertTrue(policy.size() == 0 && policy.retainedBytes() == 0);
+  }
+
+  // calls into a copy of StaticOuter defined by a throwaway class loader
+  private static WeakReference<Class<?>> callIntoIsolatedClass(BinderInstance binder)
+      throws Exception {
+    Class<?> clazz = new IsolatingLoader().define(StaticOuter.class.getName());
+    Object instance = binder.call(clazz, "StaticOuter", new Object[0]);
+    binder.call(instance, "hashCode", new Object[0]);
+    assertTrue(binder.getCacheEntryCount() == 5);
+    return new WeakReference<>(clazz);
+  }
+
+  private static final class IsolatingLoader extends ClassLoader {
+    Class<?> define(String name) throws IOException {
+      String resource = name.replace('.', '/') + ".class";
+      try (InputStream in = BinderInstanceTest.class.getClassLoader()
+          .getResourceAsStream(resource)) {
+        byte[] bytes = in.readAllBytes();
+        return defineClass(name, bytes, 0, bytes.length);
+      }
+    }
+  }
+
+  @Test
+  void metricsRecordDispatch() throws Exception {
+    BinderInstance binder = new BinderInstance();
+    binder.call(Math.class, "max", new Object[] {1, 2});
+    assertTrue(!binder.isMetricsEnabled());
+    assertTrue(binder.getMetrics().getCacheMisses() == 0); // nothing recorded while disabled
+    binder.setMetricsEnabled(true);
+    assertTrue(binder.scanImport("com.habu.Tester"));
+    binder.call(Math.class, "max", new Object[] {1, 2}); // cached
+    binder.call(Math.class, "max", new Object[] {1.5, 2}); // resolved
+    binder.newInstance(StringBuilder.class, new Object[] {"a"});
+    assertTrue(binder.scanImports(List.of("java.util.*", "java.time.*")).get("java.util.*"));
+    BinderMetrics metrics = binder.getMetrics();
+    assertTrue(metrics.getScanImport().getCount() == 2); // one import, one batch
+    assertTrue(metrics.getCacheHits() == 1 && metrics.getCacheMisses() == 2);
+    assertTrue(metrics.getCacheHitRate() > 0.3 && metrics.getCacheHitRate() < 0.4);
+    assertTrue(metrics.getResolve().getCount() == 2);
+    assertTrue(metrics.getOverloadsScored() > 2 && metrics.getMeanOverloadsScored() > 1);
+    BinderMetrics.Latency invoke = metrics.getInvoke();
+    assertTrue(invoke.getCount() == 2 && metrics.getNewInstance().getCount() == 1);
+    assertTrue(invoke.getP50Nanos() <= invoke.getP99Nanos());
+    assertTrue(invoke.getMaxNanos() <= invoke.getP99Nanos());
+    assertTrue(invoke.getTotalNanos() > 0 && invoke.getMeanNanos() > 0);
+    assertTrue(invoke.getBucketCounts().length == LatencyHistogram.BUCKETS);
+    BinderMetrics.HotMethod hottest = metrics.getHotMethods().get(0);
+    assertTrue(hottest.getClassName().equals("java.lang.Math"));
+    assertTrue(hottest.getMethodName().equals("max") && hottest.getCalls() == 2);
+    assertTrue(binder.getMetrics(1).getHotMethods().size() == 1);
+    assertTrue(metrics.getHotMethods().get(1).getMethodName().equals("<init>"));
+
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = binder.registerMetricsBean("metricsRecordDispatch");
+    try {
+      assertTrue((boolean) server.getAttribute(name, "Enabled"));
+      assertTrue((long) server.getAttribute(name, "CacheHits") == 1);
+      assertTrue((long) server.getAttribute(name, "CacheMisses") == 2);
+      assertTrue((long) server.getAttribute(name, "OverloadsScored") > 2);
+      CompositeData scan = (CompositeData) server.getAttribute(name, "ScanImport");
+      assertTrue((long) scan.get("count") == 2);
+      for (String latency : List.of("Resolve", "Invoke", "NewInstance")) {
+        assertTrue(server.getAttribute(name, latency) instanceof CompositeData);
+      }
+      CompositeData[] hot = (CompositeData[]) server.getAttribute(name, "HotMethods");
+      assertTrue(hot[0].get("methodName").equals("max"));
+      server.invoke(name, "reset", null, null);
+      assertTrue(binder.getMetrics().getInvoke().getCount() == 0);
+      assertTrue(binder.getMetrics().getInvoke().getP50Nanos() == 0);
+    } finally {
+      binder.unregisterMetricsBean();
+    }
+    assertTrue(!server.isRegistered(name));
+    binder.unregisterMetricsBean(); // nothing left to unregister
+    assertTrue(binder.registerMetricsBean("metricsRecordDispatch").equals(name)); // name freed
+    assertThrows(JMException.class, () -> binder.registerMetricsBean("metricsRecordDispatch"));
+    server.unregisterMBean(name); // unregistered directly: skipped
+    binder.unregisterMetricsBean();
+    binder.setMetricsEnabled(false);
+    binder.resetMetrics();
+  }
+
+  @Test
+  void flightRecorderEvents(@TempDir Path dir) throws Exception {
+    BinderInstance binder = new BinderInstance();
+    Path file = dir.resolve("binder.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("com.habu.ScanImport");
+      recording.enable("com.habu.ResolveOverload");
+      recording.enable("com.habu.InvocationFailure");
+      recording.start();
+      assertTrue(binder.scanImport("com.habu.Tester.InnerToImport"));
+      assertTrue(binder.scanImports(List.of("com.habu.Tester.StaticInner", "java.time.*"))
+          .get("java.time.*"));
+      binder.call(Math.class, "max", new Object[] {1, 2});
+      assertThrows(InvocationTargetException.class,
+          () -> binder.call(Integer.class, "parseInt", new Object[] {"x"}));
+      assertThrows(NullPointerException.class,
+          () -> binder.call(Math.class, "noSuchMethod", new Object[0]));
+      assertThrows(IllegalArgumentException.class,
+          () -> binder.newInstance(StringBuilder.class, new Object[] {1, 2, 3}));
+      Method parseInt = Integer.class.getMethod("parseInt", String.class);
+      assertThrows(InvocationTargetException.class,
+          () -> binder.invoke(null, parseInt, List.of("y")));
+      recording.stop();
+      recording.dump(file);
+    }
+    Map<String, List<RecordedEvent>> events = RecordingFile.readAllEvents(file).stream()
+        .collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+    RecordedEvent scan = events.get("com.habu.ScanImport").get(0);
+    assertTrue(scan.getString("importString").equals("com.habu.Tester.InnerToImport"));
+    assertTrue(scan.getInt("importCount") == 1 && scan.getInt("classesRegistered") == 1);
+    assertTrue(scan.getInt("innerClassAttempts") == 2);
+    RecordedEvent batch = events.get("com.habu.ScanImport").get(1);
+    assertTrue(batch.getString("importString")
+        .equals("com.habu.Tester.StaticInner,java.time.*"));
+    assertTrue(batch.getInt("importCount") == 2 && batch.getInt("classesRegistered") > 10);
+    RecordedEvent max = events.get("com.habu.ResolveOverload").stream()
+        .filter(e -> e.getString("methodName").equals("max")).findFirst().get();
+    assertTrue(max.getString("className").equals("java.lang.Math"));
+    assertTrue(max.getInt("candidatesScored") == 4);
+    assertTrue(max.getString("winner").contains("max(int,int)"));
+    List<RecordedEvent> failures = events.get("com.habu.InvocationFailure");
+    assertTrue(failures.size() == 4);
+    assertTrue(failures.get(0).getString("exceptionClass")
+        .equals(NumberFormatException.class.getName()));
+    assertTrue(failures.get(1).getString("methodName").equals("noSuchMethod"));
+    assertTrue(failures.get(2).getString("className").equals("java.lang.StringBuilder"));
+    assertTrue(failures.get(3).getString("className").equals("java.lang.Integer"));
+  }
+}
@@ -15,6 +15,9 @@ public class Tester {
 
   public static int id = -1;
 
+  public char letter = 'a';
+  public final String name = "tester";
+
   /*** . */
   public static class StaticInner {
     public static int id = -1;
@@ -80,6 +83,18 @@ public class Tester {
     id = OBJARR;
   }
 
+  public static long sumLongs(long... values) {
+    long ret = 0;
+    for (long v : values) {
+      ret += v;
+    }
+    return ret;
+  }
+
+  public static String joinChars(String prefix, char... chars) {
+    return prefix + new String(chars);
+  }
+
   public static void twoArgTest(int a, int b) {
     id = INT;
   }